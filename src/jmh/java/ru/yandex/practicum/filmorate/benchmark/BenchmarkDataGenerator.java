@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class BenchmarkDataGenerator {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int GENRES = 6;
+    private static final int RATINGS = 5;
+    private static final String[] WORDS = {
+            "star", "night", "river", "shadow", "empire", "garden", "winter", "storm", "island", "dream",
+            "road", "silent", "golden", "last", "city", "fire", "ocean", "secret", "broken", "wild"
+    };
+    private static final String INSERT_USER_SQL =
+            "insert into users (name, login, email, birthday) values (?, ?, ?, ?)";
+    private static final String INSERT_DIRECTOR_SQL = "insert into directors (name) values (?)";
+    private static final String INSERT_FILM_SQL =
+            "insert into films (name, description, release_date, duration, rating) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_FILM_GENRE_SQL = "insert into film_genre (film_id, genre_id) values (?, ?)";
+    private static final String INSERT_FILM_DIRECTOR_SQL =
+            "insert into film_director (film_id, director_id) values (?, ?)";
+    private static final String INSERT_LIKE_SQL = "insert into film_like (user_id, film_id) values (?, ?)";
+    private static final String INSERT_FRIEND_SQL =
+            "insert into friends (user_id, friend_id, status) values (?, ?, false)";
+    private static final String INSERT_EVENT_SQL = "insert into events (timestamp, operation, event_type, user_id, " +
+            "entity_id) values (?, 'ADD', 'LIKE', ?, ?)";
+    private static final String RECOUNT_LIKES_SQL = "update films f " +
+            "set likes_count = (select count(1) from film_like fl where fl.film_id = f.id)";
+    private static final String FILL_ROLLUP_SQL = "insert into film_popularity_rollup " +
+            "(genre_id, release_year, likes_count, film_id) " +
+            "select g.genre_id, y.release_year, f.likes_count, f.id from films f " +
+            "join (select id film_id, 0 genre_id from films " +
+            "union all select film_id, genre_id from film_genre) g on g.film_id = f.id " +
+            "join (select id film_id, 0 release_year from films " +
+            "union all select id, year(release_date) from films where release_date is not null) y on y.film_id = f.id";
+    private static final String COUNT_ROLLUP_SQL = "select count(1) from film_popularity_rollup";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public Size seed(String size) {
+        Size dataSize = Size.of(size);
+        insertUsers(dataSize.getUsers());
+        insertDirectors(dataSize.getDirectors());
+        insertFilms(dataSize.getFilms(), dataSize.getDirectors());
+        insertLikes(dataSize.getUsers(), dataSize.getFilms(), dataSize.getLikes());
+        insertFriends(dataSize.getUsers(), dataSize.getFriendships());
+        jdbcTemplate.update(RECOUNT_LIKES_SQL);
+        jdbcTemplate.update(FILL_ROLLUP_SQL);
+        Integer rollupRows = jdbcTemplate.queryForObject(COUNT_ROLLUP_SQL, Integer.class);
+        if (rollupRows == null || rollupRows == 0) {
+            throw new IllegalStateException("Popularity rollup is empty after seeding " + dataSize.getLabel());
+        }
+        return dataSize;
+    }
+
+    private void insertUsers(int users) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"User " + i, "user" + i, "user" + i + "@mail.ru",
+                    Date.valueOf(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(15_000)))});
+            rows = flushIfFull(INSERT_USER_SQL, rows);
+        }
+        flush(INSERT_USER_SQL, rows);
+    }
+
+    private void insertDirectors(int directors) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= directors; i++) {
+            rows.add(new Object[]{word() + " " + word() + " " + i});
+            rows = flushIfFull(INSERT_DIRECTOR_SQL, rows);
+        }
+        flush(INSERT_DIRECTOR_SQL, rows);
+    }
+
+    private void insertFilms(int films, int directors) {
+        List<Object[]> filmRows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            filmRows.add(new Object[]{"The " + word() + " " + word() + " " + i, "Description " + i,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(27_000))),
+                    60 + random.nextInt(120), 1 + random.nextInt(RATINGS)});
+            filmRows = flushIfFull(INSERT_FILM_SQL, filmRows);
+        }
+        flush(INSERT_FILM_SQL, filmRows);
+
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> directorRows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            int genreId = 1 + random.nextInt(GENRES);
+            genreRows.add(new Object[]{i, genreId});
+            if (random.nextBoolean()) {
+                genreRows.add(new Object[]{i, genreId % GENRES + 1});
+            }
+            directorRows.add(new Object[]{i, 1 + random.nextInt(directors)});
+            genreRows = flushIfFull(INSERT_FILM_GENRE_SQL, genreRows);
+            directorRows = flushIfFull(INSERT_FILM_DIRECTOR_SQL, directorRows);
+        }
+        flush(INSERT_FILM_GENRE_SQL, genreRows);
+        flush(INSERT_FILM_DIRECTOR_SQL, directorRows);
+    }
+
+    private void insertLikes(int users, int films, int likes) {
+        int likesPerUser = Math.max(1, likes / users);
+        List<Object[]> likeRows = new ArrayList<>();
+        List<Object[]> eventRows = new ArrayList<>();
+        long timestamp = System.currentTimeMillis();
+        Set<Integer> liked = new HashSet<>();
+        for (int userId = 1; userId <= users; userId++) {
+            liked.clear();
+            for (int i = 0; i < likesPerUser; i++) {
+                double skew = random.nextDouble();
+                int filmId = 1 + (int) (films * skew * skew);
+                if (liked.add(filmId)) {
+                    likeRows.add(new Object[]{userId, filmId});
+                    eventRows.add(new Object[]{timestamp++, userId, filmId});
+                }
+            }
+            likeRows = flushIfFull(INSERT_LIKE_SQL, likeRows);
+            eventRows = flushIfFull(INSERT_EVENT_SQL, eventRows);
+        }
+        flush(INSERT_LIKE_SQL, likeRows);
+        flush(INSERT_EVENT_SQL, eventRows);
+    }
+
+    private void insertFriends(int users, int friendships) {
+        int friendsPerUser = Math.max(1, friendships / users);
+        List<Object[]> rows = new ArrayList<>();
+        Set<Integer> friends = new HashSet<>();
+        for (int userId = 1; userId <= users; userId++) {
+            friends.clear();
+            for (int i = 0; i < friendsPerUser; i++) {
+                int friendId = 1 + random.nextInt(users);
+                if (friendId != userId && friends.add(friendId)) {
+                    rows.add(new Object[]{userId, friendId});
+                }
+            }
+            rows = flushIfFull(INSERT_FRIEND_SQL, rows);
+        }
+        flush(INSERT_FRIEND_SQL, rows);
+    }
+
+    private List<Object[]> flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH_SIZE) {
+            return rows;
+        }
+        flush(sql, rows);
+        return new ArrayList<>();
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Size {
+        SMALL("10k", 1_000, 500, 10_000, 5_000),
+        MEDIUM("100k", 10_000, 5_000, 100_000, 50_000),
+        LARGE("1m", 100_000, 50_000, 1_000_000, 500_000);
+
+        private final String label;
+        private final int users;
+        private final int films;
+        private final int likes;
+        private final int friendships;
+
+        public int getDirectors() {
+            return Math.max(1, films / 20);
+        }
+
+        public static Size of(String label) {
+            for (Size size : values()) {
+                if (size.label.equalsIgnoreCase(label)) {
+                    return size;
+                }
+            }
+            throw new IllegalArgumentException("Unknown data set size " + label);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmFullService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private FilmFullService filmFullService;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp(FilmorateState state) {
+        filmFullService = state.getBean(FilmFullService.class);
+        userService = state.getBean(UserService.class);
+    }
+
+    @Benchmark
+    public List<Film> getAllFilms() {
+        return filmFullService.getAllFilms();
+    }
+
+    @Benchmark
+    public List<Film> getTopFilms() {
+        return filmFullService.getTopFilms(10, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getTopFilmsByGenreAndYear() {
+        return filmFullService.getTopFilms(10, 2, "1999");
+    }
+
+    @Benchmark
+    public List<Film> searchFilms() {
+        return filmFullService.searchFilms("star", "title,director");
+    }
+
+    @Benchmark
+    public List<Film> getRecommendations(FilmorateState state) {
+        return filmFullService.getRecommendations(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> getFriendSuggestions(FilmorateState state) {
+        return userService.getFriendSuggestions(state.randomUserId(), 10);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FeedStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    private FilmStorage filmStorage;
+    private FeedStorage feedStorage;
+    private UserStorage userStorage;
+
+    @Setup(Level.Trial)
+    public void setUp(FilmorateState state) {
+        filmStorage = state.getBean(FilmStorage.class);
+        feedStorage = state.getBean(FeedStorage.class);
+        userStorage = state.getBean(UserStorage.class);
+    }
+
+    @Benchmark
+    public List<Film> getPopular() {
+        return filmStorage.getPopular(10, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getPopularByGenreAndYear() {
+        return filmStorage.getPopular(10, 2, "1999");
+    }
+
+    @Benchmark
+    public List<Film> searchFilmsByTitle() {
+        return filmStorage.searchFilms("star", "title");
+    }
+
+    @Benchmark
+    public List<Film> searchFilmsByTitleAndDirector() {
+        return filmStorage.searchFilms("star", "title,director");
+    }
+
+    @Benchmark
+    public List<Film> getRecommendations(FilmorateState state) {
+        return filmStorage.getRecommendations(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<Feed> getFeed(FilmorateState state) {
+        return feedStorage.getFeed(state.randomUserId(), 0, 1000);
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(FilmorateState state) {
+        return userStorage.getCommonFriends(state.randomUserId(), state.randomUserId());
+    }
+}
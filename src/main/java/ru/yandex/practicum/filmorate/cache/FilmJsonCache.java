@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class FilmJsonCache {
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
+    private final MeterRegistry meterRegistry;
+    @Value("${filmorate.cache.film-json.enabled:true}")
+    private final boolean enabled;
+    @Value("${filmorate.cache.film-json.max-size:100000}")
+    private final int maxSize;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("filmorate.cache.film-json.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("filmorate.cache.film-json.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public long stamp() {
+        return resourceVersions.filmContentStamp();
+    }
+
+    public byte[] toJson(Film film, long stamp) {
+        if (!enabled) {
+            return encode(film);
+        }
+        long version = resourceVersions.filmVersion(film.getId());
+        Entry entry = entries.get(film.getId());
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.json;
+        }
+        misses.increment();
+        byte[] json = encode(film);
+        if (resourceVersions.filmContentStamp() == stamp) {
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+            entries.put(film.getId(), new Entry(version, json));
+        }
+        return json;
+    }
+
+    public byte[] toJsonArray(List<Film> films, long stamp) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < films.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(toJson(films.get(i), stamp));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    public Consumer<Consumer<byte[]>> encode(Consumer<Consumer<Film>> source) {
+        return consumer -> {
+            long stamp = stamp();
+            source.accept(film -> consumer.accept(toJson(film, stamp)));
+        };
+    }
+
+    private byte[] encode(Film film) {
+        try {
+            return objectMapper.writeValueAsBytes(film);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final long version;
+        private final byte[] json;
+    }
+}
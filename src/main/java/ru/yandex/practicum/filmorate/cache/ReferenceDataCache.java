@@ -0,0 +1,261 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final DirectorStorage directorStorage;
+    private final MeterRegistry meterRegistry;
+    private final ResourceVersions resourceVersions;
+    @Value("${filmorate.cache.directors.max-size:10000}")
+    private final int directorsMaxSize;
+
+    private final CacheStats genreStats = new CacheStats();
+    private final CacheStats mpaStats = new CacheStats();
+    private final CacheStats directorStats = new CacheStats();
+
+    private final Lock publishLock = new ReentrantLock();
+    private volatile IntKeyedSnapshot<Genre> genres;
+    private volatile long genresGeneration;
+    private volatile IntKeyedSnapshot<Mpa> mpas;
+    private volatile long mpasGeneration;
+    private final Map<Integer, Director> directors = new ConcurrentHashMap<>();
+    private volatile List<Director> allDirectors;
+    private volatile long directorsGeneration;
+
+    @PostConstruct
+    public void registerMetrics() {
+        genreStats.register("genres");
+        mpaStats.register("mpa");
+        directorStats.register("directors");
+    }
+
+    public List<Genre> getGenres() {
+        return genreSnapshot().all;
+    }
+
+    public Optional<Genre> getGenre(int id) {
+        return Optional.ofNullable(genreSnapshot().get(id));
+    }
+
+    public void invalidateGenres() {
+        publishLock.lock();
+        try {
+            genresGeneration++;
+            genres = null;
+        } finally {
+            publishLock.unlock();
+        }
+        resourceVersions.genresChanged();
+        log.info("Genres cache invalidated");
+    }
+
+    public List<Mpa> getMpas() {
+        return mpaSnapshot().all;
+    }
+
+    public Optional<Mpa> getMpa(int id) {
+        return Optional.ofNullable(mpaSnapshot().get(id));
+    }
+
+    public void invalidateMpas() {
+        publishLock.lock();
+        try {
+            mpasGeneration++;
+            mpas = null;
+        } finally {
+            publishLock.unlock();
+        }
+        resourceVersions.mpasChanged();
+        log.info("MPA cache invalidated");
+    }
+
+    public List<Director> getDirectors() {
+        List<Director> all = allDirectors;
+        if (all != null) {
+            directorStats.hits.increment();
+            return all;
+        }
+        directorStats.misses.increment();
+        long generation = directorsGeneration;
+        all = List.copyOf(directorStorage.getAllDirectors());
+        if (all.size() <= directorsMaxSize) {
+            List<Director> loaded = all;
+            publish(generation, () -> directorsGeneration, () -> allDirectors = loaded);
+        }
+        return all;
+    }
+
+    public Optional<Director> getDirector(int id) {
+        Director director = directors.get(id);
+        if (director != null) {
+            directorStats.hits.increment();
+            return Optional.of(director);
+        }
+        directorStats.misses.increment();
+        long generation = directorsGeneration;
+        Optional<Director> loaded = directorStorage.getDirectorById(id);
+        loaded.ifPresent(value -> publish(generation, () -> directorsGeneration, () -> cacheDirector(value)));
+        return loaded;
+    }
+
+    public Map<Integer, Director> getDirectors(Collection<Integer> ids) {
+        Map<Integer, Director> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Director director = directors.get(id);
+            if (director != null) {
+                found.put(id, director);
+            } else if (!missing.contains(id)) {
+                missing.add(id);
+            }
+        }
+        directorStats.hits.add(ids.size() - missing.size());
+        if (!missing.isEmpty()) {
+            directorStats.misses.add(missing.size());
+            long generation = directorsGeneration;
+            List<Director> loaded = directorStorage.getByIds(missing);
+            publish(generation, () -> directorsGeneration, () -> loaded.forEach(this::cacheDirector));
+            for (Director director : loaded) {
+                found.put(director.getId(), director);
+            }
+        }
+        return found;
+    }
+
+    public void putDirector(Director director) {
+        changeDirectors(() -> cacheDirector(director));
+    }
+
+    public void evictDirector(int id) {
+        changeDirectors(() -> directors.remove(id));
+    }
+
+    public long getHits() {
+        return genreStats.hits.sum() + mpaStats.hits.sum() + directorStats.hits.sum();
+    }
+
+    public long getMisses() {
+        return genreStats.misses.sum() + mpaStats.misses.sum() + directorStats.misses.sum();
+    }
+
+    private void changeDirectors(Runnable change) {
+        publishLock.lock();
+        try {
+            directorsGeneration++;
+            allDirectors = null;
+            change.run();
+        } finally {
+            publishLock.unlock();
+        }
+        resourceVersions.directorsChanged();
+    }
+
+    private void publish(long generation, LongSupplier currentGeneration, Runnable publication) {
+        publishLock.lock();
+        try {
+            if (generation == currentGeneration.getAsLong()) {
+                publication.run();
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void cacheDirector(Director director) {
+        if (directors.size() >= directorsMaxSize) {
+            directors.clear();
+        }
+        directors.put(director.getId(), director);
+    }
+
+    private IntKeyedSnapshot<Genre> genreSnapshot() {
+        IntKeyedSnapshot<Genre> snapshot = genres;
+        if (snapshot != null) {
+            genreStats.hits.increment();
+            return snapshot;
+        }
+        genreStats.misses.increment();
+        long generation = genresGeneration;
+        IntKeyedSnapshot<Genre> loaded = new IntKeyedSnapshot<>(genreStorage.getAll(), Genre::getId);
+        publish(generation, () -> genresGeneration, () -> genres = loaded);
+        return loaded;
+    }
+
+    private IntKeyedSnapshot<Mpa> mpaSnapshot() {
+        IntKeyedSnapshot<Mpa> snapshot = mpas;
+        if (snapshot != null) {
+            mpaStats.hits.increment();
+            return snapshot;
+        }
+        mpaStats.misses.increment();
+        long generation = mpasGeneration;
+        IntKeyedSnapshot<Mpa> loaded = new IntKeyedSnapshot<>(mpaStorage.getAll(), Mpa::getId);
+        publish(generation, () -> mpasGeneration, () -> mpas = loaded);
+        return loaded;
+    }
+
+    private static final class IntKeyedSnapshot<T> {
+        private final Object[] byId;
+        private final List<T> all;
+
+        private IntKeyedSnapshot(List<T> values, ToIntFunction<T> idFunction) {
+            int maxId = values.stream().mapToInt(idFunction).max().orElse(0);
+            byId = new Object[maxId + 1];
+            for (T value : values) {
+                byId[idFunction.applyAsInt(value)] = value;
+            }
+            all = List.copyOf(values);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int id) {
+            return id >= 0 && id < byId.length ? (T) byId[id] : null;
+        }
+    }
+
+    private final class CacheStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private void register(String cache) {
+            FunctionCounter.builder("filmorate.cache.reference.requests", hits, LongAdder::sum)
+                    .tag("cache", cache)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("filmorate.cache.reference.requests", misses, LongAdder::sum)
+                    .tag("cache", cache)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ResourceVersions {
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, Long> films = new ConcurrentHashMap<>();
+    private final AtomicLong filmLists = new AtomicLong();
+    private final AtomicLong directors = new AtomicLong();
+    private final AtomicLong genres = new AtomicLong();
+    private final AtomicLong mpas = new AtomicLong();
+    private final AtomicLong filmContent = new AtomicLong();
+
+    public long filmVersion(long id) {
+        return films.getOrDefault(id, 0L) + directors.get() + genres.get() + mpas.get();
+    }
+
+    public long filmContentStamp() {
+        return filmContent.get();
+    }
+
+    public String film(long id) {
+        return tag(films.getOrDefault(id, 0L), directors.get(), genres.get(), mpas.get());
+    }
+
+    public String filmLists() {
+        return tag(filmLists.get(), directors.get(), genres.get(), mpas.get());
+    }
+
+    public String directors() {
+        return tag(directors.get());
+    }
+
+    public String genres() {
+        return tag(genres.get());
+    }
+
+    public String mpas() {
+        return tag(mpas.get());
+    }
+
+    public void filmChanged(long id) {
+        films.merge(id, 1L, Long::sum);
+        filmLists.incrementAndGet();
+        filmContent.incrementAndGet();
+    }
+
+    public void likesChanged() {
+        filmLists.incrementAndGet();
+    }
+
+    public void directorsChanged() {
+        directors.incrementAndGet();
+        filmContent.incrementAndGet();
+    }
+
+    public void genresChanged() {
+        genres.incrementAndGet();
+        filmContent.incrementAndGet();
+    }
+
+    public void mpasChanged() {
+        mpas.incrementAndGet();
+        filmContent.incrementAndGet();
+    }
+
+    private String tag(long... versions) {
+        StringBuilder tag = new StringBuilder().append(epoch);
+        for (long version : versions) {
+            tag.append('-').append(version);
+        }
+        return tag.toString();
+    }
+}
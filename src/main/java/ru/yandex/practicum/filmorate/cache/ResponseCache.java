@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    @Value("${filmorate.cache.responses.max-size:10000}")
+    private final int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    @PostConstruct
+    public void registerMetrics() {
+        register("hit", hits);
+        register("miss", misses);
+        register("not_modified", notModified);
+    }
+
+    public ResponseEntity<byte[]> get(WebRequest request, String key, String version,
+                                      Supplier<? extends ResponseEntity<?>> loader) {
+        String etag = '"' + version + '"';
+        if (request.checkNotModified(etag)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version.equals(version)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = load(version, loader.get());
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+            entries.put(key, entry);
+        }
+        return ResponseEntity.ok()
+                .headers(entry.headers)
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.body);
+    }
+
+    private Entry load(String version, ResponseEntity<?> response) {
+        try {
+            Object body = response.getBody();
+            return new Entry(version, response.getHeaders(),
+                    body instanceof byte[] ? (byte[]) body : objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void register(String result, LongAdder counter) {
+        FunctionCounter.builder("filmorate.cache.responses.requests", counter, LongAdder::sum)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final String version;
+        private final HttpHeaders headers;
+        private final byte[] body;
+    }
+}
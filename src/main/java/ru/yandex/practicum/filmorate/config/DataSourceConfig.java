@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class DataSourceConfig {
+    @Bean
+    public SchemaInitializer schemaInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        return new SchemaInitializer(dataSource, properties);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Component
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+    public InstrumentedJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) {
+        return super.query(sql, counting(rse));
+    }
+
+    @Override
+    public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+        return super.query(psc, pss, counting(rse));
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.startStatement();
+        }
+    }
+
+    @Override
+    protected void handleWarnings(Statement stmt) throws SQLException {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.finishStatement();
+        }
+        super.handleWarnings(stmt);
+    }
+
+    private static <T> ResultSetExtractor<T> counting(ResultSetExtractor<T> rse) {
+        QueryStats stats = QueryStats.current();
+        if (stats == null) {
+            return rse;
+        }
+        return resultSet -> rse.extractData((ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(resultSet, args);
+                        if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                            stats.addRow();
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+    private static final String HANDLER_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".handler";
+
+    private final MeterRegistry meterRegistry;
+    @Value("${filmorate.query-budget.enabled:true}")
+    private final boolean enabled;
+    @Value("${filmorate.query-budget.max-statements:20}")
+    private final int maxStatements;
+    @Value("${filmorate.query-budget.max-time-ms:200}")
+    private final long maxTimeMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (enabled && handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            request.setAttribute(HANDLER_ATTRIBUTE,
+                    handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+            QueryStats.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        complete(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        complete(request);
+    }
+
+    private void complete(HttpServletRequest request) {
+        QueryStats stats = QueryStats.current();
+        Object handler = request.getAttribute(HANDLER_ATTRIBUTE);
+        if (stats == null || handler == null) {
+            return;
+        }
+        QueryStats.clear();
+        request.removeAttribute(HANDLER_ATTRIBUTE);
+
+        DistributionSummary.builder("filmorate.request.statements")
+                .tag("handler", handler.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("filmorate.request.rows")
+                .tag("handler", handler.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("filmorate.request.db.time")
+                .tag("handler", handler.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > maxStatements || stats.getMillis() > maxTimeMs) {
+            log.warn("{} {} ({}) exceeded query budget: {} statements, {} ms, {} rows",
+                    request.getMethod(), request.getRequestURI(), handler,
+                    stats.getStatements(), stats.getMillis(), stats.getRows());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.Getter;
+
+@Getter
+public class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    private long rows;
+    private long statementStart;
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    void startStatement() {
+        statements++;
+        statementStart = System.nanoTime();
+    }
+
+    void finishStatement() {
+        if (statementStart != 0) {
+            nanos += System.nanoTime() - statementStart;
+            statementStart = 0;
+        }
+    }
+
+    void addRow() {
+        rows++;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.UncategorizedScriptException;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Slf4j
+public class SchemaInitializer extends SqlDataSourceScriptDatabaseInitializer {
+    private static final String MARKER_TABLE = "FILMS";
+    private static final String MIGRATION_SCRIPT = "schema-migration.sql";
+
+    private final DataSource dataSource;
+
+    public SchemaInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        boolean initialized = false;
+        if (schemaExists()) {
+            log.info("Schema already exists, skipping initialization scripts");
+        } else {
+            initialized = super.initializeDatabase();
+        }
+        if (schemaExists()) {
+            migrate();
+        }
+        return initialized;
+    }
+
+    private void migrate() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(MIGRATION_SCRIPT));
+        populator.setSqlScriptEncoding(StandardCharsets.UTF_8.name());
+        DatabasePopulatorUtils.execute(populator, dataSource);
+        log.info("Schema migrations from {} applied", MIGRATION_SCRIPT);
+    }
+
+    private boolean schemaExists() {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData().getTables(null, null, MARKER_TABLE, null)) {
+            return tables.next();
+        } catch (SQLException e) {
+            throw new UncategorizedScriptException("Failed to check for existing schema", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StorageMetricsAspect {
+    private static final String METRIC_PREFIX = "filmorate.storage.";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("within(ru.yandex.practicum.filmorate.storage.impl..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer timer = timers.computeIfAbsent(
+                metricName(AopUtils.getTargetClass(joinPoint.getTarget()), joinPoint.getSignature().getName()),
+                name -> Timer.builder(name).publishPercentileHistogram().register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String metricName(Class<?> storageClass, String method) {
+        String storage = storageClass.getSimpleName();
+        if (storage.startsWith("Db")) {
+            storage = storage.substring(2);
+        }
+        if (storage.endsWith("Storage")) {
+            storage = storage.substring(0, storage.length() - "Storage".length());
+        }
+        return METRIC_PREFIX + Character.toLowerCase(storage.charAt(0)) + storage.substring(1) + "." + method;
+    }
+}
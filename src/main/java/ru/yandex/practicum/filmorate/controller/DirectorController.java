@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,12 +10,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.service.DirectorService;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @Slf4j
 @RestController
@@ -23,6 +27,8 @@ import java.util.List;
 public class DirectorController {
 
     private final DirectorService directorService;
+    private final ResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     public Director addDirector(@Valid @RequestBody Director director) {
@@ -37,9 +43,17 @@ public class DirectorController {
     }
 
     @GetMapping
-    public List<Director> getDirectors() {
-        log.info("Requested all directors");
-        return directorService.getDirectors();
+    public ResponseEntity<byte[]> getDirectors(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               WebRequest request) {
+        if (cursor == null && limit == null) {
+            log.info("Requested all directors");
+            return responseCache.get(request, "directors", resourceVersions.directors(),
+                    () -> ResponseEntity.ok(directorService.getDirectors()));
+        }
+        log.info("Requested {} directors after cursor {}", limit, cursor);
+        return responseCache.get(request, "directors:" + cursor + ":" + limit, resourceVersions.directors(),
+                () -> PageResponses.ok(directorService.getDirectorsPage(cursor, PageResponses.limit(limit))));
     }
 
     @PutMapping
@@ -2,16 +2,27 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.FilmJsonCache;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import javax.validation.Valid;
@@ -24,26 +35,53 @@ import java.util.List;
 public class FilmController {
     private static final String DEFAULT_COUNT = "10";
     private final FilmService filmService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final ResponseCache responseCache;
+    private final FilmJsonCache filmJsonCache;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping
-    public List<Film> getAllFilms() {
-        log.info("Requested all films");
-        return filmService.getAllFilms();
+    public ResponseEntity<StreamingResponseBody> getAllFilms(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (cursor == null && limit == null) {
+            log.info("Requested all films");
+            return jsonStreamWriter.streamEncoded(accept, HttpHeaders.EMPTY,
+                    filmJsonCache.encode(filmService::forEachFilm));
+        }
+        log.info("Requested {} films after cursor {}", limit, cursor);
+        long stamp = filmJsonCache.stamp();
+        Page<Film> page = filmService.getFilmsPage(cursor, PageResponses.limit(limit));
+        return jsonStreamWriter.streamEncoded(accept, PageResponses.headers(page),
+                consumer -> page.getItems().forEach(film -> consumer.accept(filmJsonCache.toJson(film, stamp))));
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable long id) {
+    public ResponseEntity<byte[]> getFilmById(@PathVariable long id, WebRequest request) {
         log.info("Requested film {}", id);
-        return filmService.getFilmById(id);
+        return responseCache.get(request, "film:" + id, resourceVersions.film(id),
+                () -> ResponseEntity.ok(filmService.getFilmById(id)));
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = DEFAULT_COUNT) int count,
-                                      @RequestParam(required = false) Integer genreId,
-                                      @RequestParam(required = false) String year) {
-        log.info("Requested most popular {} films with genre {} released in {} year",
-                count, genreId, year);
-        return filmService.getTopFilms(count, genreId, year);
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(defaultValue = DEFAULT_COUNT) int count,
+                                                  @RequestParam(required = false) Integer genreId,
+                                                  @RequestParam(required = false) String year,
+                                                  @RequestParam(required = false) String cursor,
+                                                  WebRequest request) {
+        log.info("Requested most popular {} films with genre {} released in {} year after cursor {}",
+                count, genreId, year, cursor);
+        int popularCount = filmService.popularCount(count);
+        return responseCache.get(request, "popular:" + popularCount + ":" + genreId + ":" + year + ":" + cursor,
+                resourceVersions.filmLists(),
+                () -> {
+                    long stamp = filmJsonCache.stamp();
+                    Page<Film> page = filmService.getPopularPage(cursor, popularCount, genreId, year);
+                    return ResponseEntity.ok()
+                            .headers(PageResponses.headers(page))
+                            .body(filmJsonCache.toJsonArray(page.getItems(), stamp));
+                });
     }
 
     @GetMapping("/director/{directorId}")
@@ -71,6 +109,12 @@ public class FilmController {
         return filmService.getFilmById(id);
     }
 
+    @PostMapping("/likes:batch")
+    public List<LikeResult> addLikes(@RequestBody List<LikePair> likes) {
+        log.info("Requested addition of {} likes", likes.size());
+        return filmService.addLikes(likes);
+    }
+
     @PutMapping
     public Film update(@Valid @RequestBody Film film) {
         log.info("Requested change of film");
@@ -94,5 +138,4 @@ public class FilmController {
         log.info("Requested deleting film with id = {}", id);
         filmService.deleteFilmById(id);
     }
-
 }
@@ -2,26 +2,31 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping
 @RequiredArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final ResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping("/genres")
-    public List<Genre> getAllGenres() {
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
         log.info("Requested all genres");
-        return genreService.getAll();
+        return responseCache.get(request, "genres", resourceVersions.genres(),
+                () -> ResponseEntity.ok(genreService.getAll()));
     }
 
     @GetMapping("/genres/{id}")
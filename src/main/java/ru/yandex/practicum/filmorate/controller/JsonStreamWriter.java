@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class JsonStreamWriter {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+    private static final byte[] COMMA = {','};
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, Consumer<Consumer<T>> source) {
+        return stream(accept, HttpHeaders.EMPTY, source);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> page(String accept, Page<T> page) {
+        return stream(accept, PageResponses.headers(page), consumer -> page.getItems().forEach(consumer));
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamEncoded(String accept, HttpHeaders headers,
+                                                               Consumer<Consumer<byte[]>> source) {
+        if (accept != null && accept.contains(APPLICATION_NDJSON_VALUE)) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .contentType(APPLICATION_NDJSON)
+                    .body(outputStream -> source.accept(json -> {
+                        write(outputStream, json);
+                        write(outputStream, NEW_LINE);
+                    }));
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> {
+                    outputStream.write('[');
+                    boolean[] first = {true};
+                    source.accept(json -> {
+                        if (!first[0]) {
+                            write(outputStream, COMMA);
+                        }
+                        first[0] = false;
+                        write(outputStream, json);
+                    });
+                    outputStream.write(']');
+                });
+    }
+
+    private <T> ResponseEntity<StreamingResponseBody> stream(String accept, HttpHeaders headers,
+                                                             Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (accept != null && accept.contains(APPLICATION_NDJSON_VALUE)) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .contentType(APPLICATION_NDJSON)
+                    .body(outputStream -> {
+                        try (JsonGenerator generator = writer.getFactory().createGenerator(outputStream)) {
+                            generator.setRootValueSeparator(new SerializedString("\n"));
+                            source.accept(item -> write(writer, generator, item));
+                            generator.writeRaw('\n');
+                        }
+                    });
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> {
+                    try (JsonGenerator generator = writer.getFactory().createGenerator(outputStream)) {
+                        generator.writeStartArray();
+                        source.accept(item -> write(writer, generator, item));
+                        generator.writeEndArray();
+                    }
+                });
+    }
+
+    private static void write(OutputStream outputStream, byte[] bytes) {
+        try {
+            outputStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(ObjectWriter writer, JsonGenerator generator, Object item) {
+        try {
+            writer.writeValue(generator, item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,15 +2,17 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
+import ru.yandex.practicum.filmorate.cache.ResponseCache;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping
@@ -18,11 +20,14 @@ import java.util.List;
 public class MpaController {
 
     private final MpaService mpaService;
+    private final ResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping("/mpa")
-    public List<Mpa> getAllMpas() {
+    public ResponseEntity<byte[]> getAllMpas(WebRequest request) {
         log.info("Requested all MPAs");
-        return mpaService.getAll();
+        return responseCache.get(request, "mpa", resourceVersions.mpas(),
+                () -> ResponseEntity.ok(mpaService.getAll()));
     }
 
     @GetMapping("/mpa/{id}")
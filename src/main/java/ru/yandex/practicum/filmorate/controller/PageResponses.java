@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.model.Page;
+
+import java.util.List;
+
+final class PageResponses {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_LIMIT = 100;
+
+    private PageResponses() {
+    }
+
+    static int limit(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_LIMIT : limit;
+    }
+
+    static HttpHeaders headers(Page<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return headers;
+    }
+
+    static <T> ResponseEntity<List<T>> ok(Page<T> page) {
+        return ResponseEntity.ok().headers(headers(page)).body(page.getItems());
+    }
+}
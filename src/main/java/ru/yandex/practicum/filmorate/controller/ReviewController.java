@@ -2,20 +2,23 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.service.ReviewService;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/reviews")
@@ -26,6 +29,7 @@ public class ReviewController {
     private static final String DEFAULT_COUNT = "10";
 
     private final ReviewService reviewService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @PostMapping
     public Review addReview(@Valid @RequestBody Review review) {
@@ -52,10 +56,19 @@ public class ReviewController {
     }
 
     @GetMapping
-    public List<Review> getReviewsByFilmId(@RequestParam(defaultValue = DUMMY_PARAM_VALUE) long filmId,
-                                           @RequestParam(defaultValue = DEFAULT_COUNT) int count) {
+    public ResponseEntity<StreamingResponseBody> getReviewsByFilmId(
+            @RequestParam(defaultValue = DUMMY_PARAM_VALUE) long filmId,
+            @RequestParam(defaultValue = DEFAULT_COUNT) int count,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (cursor != null || limit != null) {
+            log.info("Requested {} reviews for film {} after cursor {}", limit, filmId, cursor);
+            return jsonStreamWriter.page(accept,
+                    reviewService.getReviewsPage(filmId, cursor, PageResponses.limit(limit)));
+        }
         log.info("Requested {} reviews for film {}", count, filmId);
-        return reviewService.getReviewsByFilmId(filmId, count);
+        return jsonStreamWriter.<Review>stream(accept, consumer -> reviewService.forEachReview(filmId, count, consumer));
     }
 
     @PutMapping("{id}/like/{userId}")
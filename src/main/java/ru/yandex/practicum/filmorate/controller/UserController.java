@@ -2,6 +2,8 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,7 +11,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Feed;
 import ru.yandex.practicum.filmorate.model.User;
@@ -23,12 +28,21 @@ import java.util.List;
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
+    private static final int DEFAULT_FEED_LIMIT = 1000;
     private final UserService userService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @GetMapping
-    public List<User> getUsers() {
-        log.info("Requested all users");
-        return userService.getAll();
+    public ResponseEntity<StreamingResponseBody> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (cursor == null && limit == null) {
+            log.info("Requested all users");
+            return jsonStreamWriter.<User>stream(accept, userService::forEachUser);
+        }
+        log.info("Requested {} users after cursor {}", limit, cursor);
+        return jsonStreamWriter.page(accept, userService.getUsersPage(cursor, PageResponses.limit(limit)));
     }
 
     @GetMapping("/{id}")
@@ -43,6 +57,12 @@ public class UserController {
         return userService.findCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable long id, @RequestParam(defaultValue = "10") int count) {
+        log.info("Requested {} friend suggestions for user {}", count, id);
+        return userService.getFriendSuggestions(id, count);
+    }
+
     @GetMapping("/{id}/friends")
     public List<User> getFriends(@PathVariable long id) {
         log.info("Requested user {} friends list", id);
@@ -80,9 +100,21 @@ public class UserController {
     }
 
     @GetMapping("/{id}/feed")
-    public List<Feed> getEventsList(@PathVariable long id) {
-        log.info("Get events for user {}", id);
-        return userService.getEventsList(id);
+    public ResponseEntity<StreamingResponseBody> getEventsList(
+            @PathVariable long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (after == null && limit == null) {
+            log.info("Get all events for user {}", id);
+            userService.checkFeedRequest(id, 0, Integer.MAX_VALUE);
+            return jsonStreamWriter.<Feed>stream(accept,
+                    consumer -> userService.forEachEvent(id, 0, Integer.MAX_VALUE, consumer));
+        }
+        long afterEventId = after == null ? 0 : after;
+        int feedLimit = limit == null ? DEFAULT_FEED_LIMIT : limit;
+        log.info("Get {} events for user {} after event {}", feedLimit, id, afterEventId);
+        return jsonStreamWriter.page(accept, userService.getFeedPage(id, afterEventId, feedLimit));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,265 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final FilmStorage filmStorage;
+    private final DirectorStorage directorStorage;
+    private final PopularityIndex popularityIndex;
+    @Value("${filmorate.search-index.enabled:true}")
+    private final boolean enabled;
+
+    private final Map<Long, String> titles = new HashMap<>();
+    private final Map<Long, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<Integer, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Integer>> directorGrams = new HashMap<>();
+    private final Map<Long, Set<Integer>> directorsByFilm = new HashMap<>();
+    private final Map<Integer, Set<Long>> filmsByDirector = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<Film> films = filmStorage.getAllFilms();
+        List<Director> directors = directorStorage.getAllDirectors();
+        Map<Long, List<Integer>> directorIds = directorStorage.getIdsByFilmIds(
+                films.stream().map(Film::getId).collect(Collectors.toList()));
+
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            titleGrams.clear();
+            directorNames.clear();
+            directorGrams.clear();
+            directorsByFilm.clear();
+            filmsByDirector.clear();
+            directors.forEach(this::indexDirector);
+            for (Film film : films) {
+                indexFilm(film.getId(), film.getName(), directorIds.getOrDefault(film.getId(), List.of()));
+            }
+            log.info("Search index rebuilt for {} films and {} directors", titles.size(), directorNames.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void putFilm(Film film) {
+        if (!enabled) {
+            return;
+        }
+        List<Integer> directorIds = film.getDirectors() == null ? List.of() : film.getDirectors().stream()
+                .map(Director::getId)
+                .collect(Collectors.toList());
+        lock.writeLock().lock();
+        try {
+            unindexFilm(film.getId());
+            indexFilm(film.getId(), film.getName(), directorIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindexFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putDirector(Director director) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindexDirectorName(director.getId());
+            indexDirector(director);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDirector(int directorId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindexDirectorName(directorId);
+            Set<Long> films = filmsByDirector.remove(directorId);
+            if (films != null) {
+                films.forEach(filmId -> directorsByFilm.getOrDefault(filmId, new HashSet<>()).remove(directorId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, String by) {
+        String text = normalize(query);
+        Set<Long> found = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            switch (by) {
+                case "title":
+                    found.addAll(match(text, titles, titleGrams));
+                    break;
+                case "director":
+                    addDirectorFilms(text, found);
+                    break;
+                case "title,director":
+                case "director,title":
+                    found.addAll(match(text, titles, titleGrams));
+                    addDirectorFilms(text, found);
+                    break;
+                default:
+                    throw new ValidationException("No such sort was found");
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found.stream()
+                .sorted(Comparator.comparingInt((Long filmId) -> popularityIndex.getLikes(filmId)).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+    }
+
+    private void addDirectorFilms(String text, Set<Long> found) {
+        for (Integer directorId : match(text, directorNames, directorGrams)) {
+            found.addAll(filmsByDirector.getOrDefault(directorId, Set.of()));
+        }
+    }
+
+    private static <K> Collection<K> match(String text, Map<K, String> values, Map<Long, Set<K>> grams) {
+        if (text.length() < GRAM_LENGTH) {
+            return values.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(text))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+        List<Set<K>> postings = new ArrayList<>();
+        for (long gram : grams(text)) {
+            Set<K> posting = grams.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        List<K> matched = new ArrayList<>();
+        for (K key : postings.get(0)) {
+            if (values.get(key).contains(text)) {
+                matched.add(key);
+            }
+        }
+        return matched;
+    }
+
+    private void indexFilm(long filmId, String title, Collection<Integer> directorIds) {
+        String text = normalize(title);
+        titles.put(filmId, text);
+        for (long gram : grams(text)) {
+            titleGrams.computeIfAbsent(gram, g -> new HashSet<>()).add(filmId);
+        }
+        Set<Integer> directors = new HashSet<>(directorIds);
+        directorsByFilm.put(filmId, directors);
+        for (Integer directorId : directors) {
+            filmsByDirector.computeIfAbsent(directorId, id -> new HashSet<>()).add(filmId);
+        }
+    }
+
+    private void unindexFilm(long filmId) {
+        String text = titles.remove(filmId);
+        if (text != null) {
+            for (long gram : grams(text)) {
+                removePosting(titleGrams, gram, filmId);
+            }
+        }
+        Set<Integer> directors = directorsByFilm.remove(filmId);
+        if (directors != null) {
+            for (Integer directorId : directors) {
+                Set<Long> films = filmsByDirector.get(directorId);
+                if (films != null) {
+                    films.remove(filmId);
+                }
+            }
+        }
+    }
+
+    private void indexDirector(Director director) {
+        String text = normalize(director.getName());
+        directorNames.put(director.getId(), text);
+        for (long gram : grams(text)) {
+            directorGrams.computeIfAbsent(gram, g -> new HashSet<>()).add(director.getId());
+        }
+    }
+
+    private void unindexDirectorName(int directorId) {
+        String text = directorNames.remove(directorId);
+        if (text != null) {
+            for (long gram : grams(text)) {
+                removePosting(directorGrams, gram, directorId);
+            }
+        }
+    }
+
+    private static <K> void removePosting(Map<Long, Set<K>> grams, long gram, K key) {
+        Set<K> posting = grams.get(gram);
+        if (posting != null) {
+            posting.remove(key);
+            if (posting.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FriendGraph {
+    private static final int[] NO_FRIENDS = new int[0];
+
+    private final FriendStorage friendStorage;
+    @Value("${filmorate.friend-graph.enabled:true}")
+    private final boolean enabled;
+
+    private final Map<Integer, int[]> friendsByUser = new HashMap<>();
+    private final Map<Integer, int[]> followersByUser = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Map<Integer, List<Integer>> friends = new HashMap<>();
+            Map<Integer, List<Integer>> followers = new HashMap<>();
+            friendStorage.forEachFriendship((userId, friendId) -> {
+                friends.computeIfAbsent(userId.intValue(), id -> new ArrayList<>()).add(friendId.intValue());
+                followers.computeIfAbsent(friendId.intValue(), id -> new ArrayList<>()).add(userId.intValue());
+            });
+            friendsByUser.clear();
+            followersByUser.clear();
+            friends.forEach((userId, ids) -> friendsByUser.put(userId, toSortedArray(ids)));
+            followers.forEach((userId, ids) -> followersByUser.put(userId, toSortedArray(ids)));
+            log.info("Friend graph rebuilt for {} users", friendsByUser.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addFriend(long userId, long friendId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(friendsByUser, (int) userId, (int) friendId);
+            insert(followersByUser, (int) friendId, (int) userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(friendsByUser, (int) userId, (int) friendId);
+            remove(followersByUser, (int) friendId, (int) userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (int friendId : friendsByUser.getOrDefault((int) userId, NO_FRIENDS)) {
+                remove(followersByUser, friendId, (int) userId);
+            }
+            for (int followerId : followersByUser.getOrDefault((int) userId, NO_FRIENDS)) {
+                remove(friendsByUser, followerId, (int) userId);
+            }
+            friendsByUser.remove((int) userId);
+            followersByUser.remove((int) userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getFriends(long userId) {
+        lock.readLock().lock();
+        try {
+            int[] friends = friendsByUser.getOrDefault((int) userId, NO_FRIENDS);
+            List<Long> friendIds = new ArrayList<>(friends.length);
+            for (int friendId : friends) {
+                friendIds.add((long) friendId);
+            }
+            return friendIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> getCommonFriends(long userId, long otherId) {
+        List<Long> commonIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] friends = friendsByUser.getOrDefault((int) userId, NO_FRIENDS);
+            int[] otherFriends = friendsByUser.getOrDefault((int) otherId, NO_FRIENDS);
+            int i = 0;
+            int j = 0;
+            while (i < friends.length && j < otherFriends.length) {
+                if (friends[i] < otherFriends[j]) {
+                    i++;
+                } else if (friends[i] > otherFriends[j]) {
+                    j++;
+                } else {
+                    commonIds.add((long) friends[i]);
+                    i++;
+                    j++;
+                }
+            }
+            return commonIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> getSuggestions(long userId, int count) {
+        lock.readLock().lock();
+        try {
+            int[] friends = friendsByUser.getOrDefault((int) userId, NO_FRIENDS);
+            Map<Integer, Integer> mutualCounts = new HashMap<>();
+            for (int friendId : friends) {
+                for (int candidateId : friendsByUser.getOrDefault(friendId, NO_FRIENDS)) {
+                    if (candidateId != userId && Arrays.binarySearch(friends, candidateId) < 0) {
+                        mutualCounts.merge(candidateId, 1, Integer::sum);
+                    }
+                }
+            }
+            List<Map.Entry<Integer, Integer>> candidates = new ArrayList<>(mutualCounts.entrySet());
+            candidates.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Long> suggestedIds = new ArrayList<>();
+            for (int i = 0; i < Math.min(count, candidates.size()); i++) {
+                suggestedIds.add(candidates.get(i).getKey().longValue());
+            }
+            return suggestedIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] toSortedArray(List<Integer> ids) {
+        int[] array = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static void insert(Map<Integer, int[]> adjacency, int key, int id) {
+        int[] ids = adjacency.getOrDefault(key, NO_FRIENDS);
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        updated[position] = id;
+        System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+        adjacency.put(key, updated);
+    }
+
+    private static void remove(Map<Integer, int[]> adjacency, int key, int id) {
+        int[] ids = adjacency.get(key);
+        if (ids == null) {
+            return;
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            adjacency.remove(key);
+            return;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, updated.length - position);
+        adjacency.put(key, updated);
+    }
+}
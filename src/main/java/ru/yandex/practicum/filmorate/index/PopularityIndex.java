@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularityIndex {
+    private static final int ANY = 0;
+    private static final Comparator<Rank> RANK_ORDER = Comparator.comparingInt((Rank rank) -> rank.likes).reversed()
+            .thenComparingLong(rank -> rank.filmId);
+
+    private final FilmStorage filmStorage;
+    private final GenreStorage genreStorage;
+    private final LikeStorage likeStorage;
+    @Value("${filmorate.popularity-index.enabled:true}")
+    private final boolean enabled;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Rank>> partitions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<Film> films = filmStorage.getAllFilms();
+        Map<Long, List<Integer>> genres = genreStorage.getIdsByFilmIds(
+                films.stream().map(Film::getId).collect(Collectors.toList()));
+        Map<Long, Integer> likes = likeStorage.getLikesCountByFilmId();
+
+        entries.clear();
+        partitions.clear();
+        for (Film film : films) {
+            Entry entry = new Entry(likes.getOrDefault(film.getId(), 0), film.getReleaseDate().getYear(),
+                    genres.getOrDefault(film.getId(), List.of()).stream().mapToInt(Integer::intValue).toArray());
+            entries.put(film.getId(), entry);
+            addRanks(film.getId(), entry);
+        }
+        log.info("Popularity index rebuilt for {} films", entries.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void putFilm(Film film) {
+        if (!enabled) {
+            return;
+        }
+        entries.compute(film.getId(), (filmId, old) -> {
+            int likes = 0;
+            if (old != null) {
+                removeRanks(filmId, old);
+                likes = old.likes;
+            }
+            Entry entry = new Entry(likes, film.getReleaseDate().getYear(), genreIds(film.getGenres()));
+            addRanks(filmId, entry);
+            return entry;
+        });
+    }
+
+    public void removeFilm(long filmId) {
+        if (!enabled) {
+            return;
+        }
+        entries.computeIfPresent(filmId, (id, old) -> {
+            removeRanks(id, old);
+            return null;
+        });
+    }
+
+    public void changeLikes(long filmId, int delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        entries.computeIfPresent(filmId, (id, old) -> {
+            removeRanks(id, old);
+            Entry entry = new Entry(old.likes + delta, old.year, old.genreIds);
+            addRanks(id, entry);
+            return entry;
+        });
+    }
+
+    public int getLikes(long filmId) {
+        Entry entry = entries.get(filmId);
+        return entry == null ? 0 : entry.likes;
+    }
+
+    public List<Long> getTop(int count, Integer genreId, Integer year) {
+        return getTop(count, genreId, year, Integer.MAX_VALUE, 0);
+    }
+
+    public List<Long> getTop(int count, Integer genreId, Integer year, int afterLikes, long afterFilmId) {
+        List<Long> filmIds = new ArrayList<>();
+        NavigableSet<Rank> partition = partitions.get(partitionKey(
+                genreId == null ? ANY : genreId, year == null ? ANY : year));
+        if (partition == null) {
+            return filmIds;
+        }
+        Iterator<Rank> iterator = partition.tailSet(new Rank(afterLikes, afterFilmId), false).iterator();
+        while (iterator.hasNext() && filmIds.size() < count) {
+            filmIds.add(iterator.next().filmId);
+        }
+        return filmIds;
+    }
+
+    private void addRanks(long filmId, Entry entry) {
+        Rank rank = new Rank(entry.likes, filmId);
+        for (long key : partitionKeys(entry)) {
+            partitions.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(RANK_ORDER)).add(rank);
+        }
+    }
+
+    private void removeRanks(long filmId, Entry entry) {
+        Rank rank = new Rank(entry.likes, filmId);
+        for (long key : partitionKeys(entry)) {
+            NavigableSet<Rank> partition = partitions.get(key);
+            if (partition != null) {
+                partition.remove(rank);
+            }
+        }
+    }
+
+    private long[] partitionKeys(Entry entry) {
+        long[] keys = new long[2 + entry.genreIds.length * 2];
+        keys[0] = partitionKey(ANY, ANY);
+        keys[1] = partitionKey(ANY, entry.year);
+        for (int i = 0; i < entry.genreIds.length; i++) {
+            keys[2 + i * 2] = partitionKey(entry.genreIds[i], ANY);
+            keys[3 + i * 2] = partitionKey(entry.genreIds[i], entry.year);
+        }
+        return keys;
+    }
+
+    private static long partitionKey(int genreId, int year) {
+        return ((long) genreId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private static int[] genreIds(Collection<Genre> genres) {
+        if (genres == null) {
+            return new int[0];
+        }
+        return genres.stream().mapToInt(Genre::getId).distinct().toArray();
+    }
+
+    private static final class Entry {
+        private final int likes;
+        private final int year;
+        private final int[] genreIds;
+
+        private Entry(int likes, int year, int[] genreIds) {
+            this.likes = likes;
+            this.year = year;
+            this.genreIds = genreIds;
+        }
+    }
+
+    private static final class Rank {
+        private final int likes;
+        private final long filmId;
+
+        private Rank(int likes, long filmId) {
+            this.likes = likes;
+            this.filmId = filmId;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecommendationIndex {
+    private final LikeStorage likeStorage;
+    @Value("${filmorate.recommendation-index.enabled:true}")
+    private final boolean enabled;
+
+    private final Map<Integer, BitSet> filmsByUser = new HashMap<>();
+    private final Map<Integer, BitSet> usersByFilm = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+            likeStorage.forEachLike((userId, filmId) -> set(userId.intValue(), filmId.intValue()));
+            log.info("Recommendation index rebuilt for {} users and {} films", filmsByUser.size(), usersByFilm.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(long userId, long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            set((int) userId, (int) filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeLike(long userId, long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            clear(filmsByUser, (int) userId, (int) filmId);
+            clear(usersByFilm, (int) filmId, (int) userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BitSet films = filmsByUser.remove((int) userId);
+            if (films != null) {
+                films.stream().forEach(filmId -> clear(usersByFilm, filmId, (int) userId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BitSet users = usersByFilm.remove((int) filmId);
+            if (users != null) {
+                users.stream().forEach(userId -> clear(filmsByUser, userId, (int) filmId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getRecommendations(long userId) {
+        List<Long> filmIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet liked = filmsByUser.get((int) userId);
+            if (liked == null) {
+                return filmIds;
+            }
+            Map<Integer, Integer> overlaps = new HashMap<>();
+            liked.stream().forEach(filmId -> usersByFilm.get(filmId).stream()
+                    .filter(otherId -> otherId != userId)
+                    .forEach(otherId -> overlaps.merge(otherId, 1, Integer::sum)));
+            int maxOverlap = overlaps.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+            BitSet recommended = new BitSet();
+            overlaps.forEach((otherId, overlap) -> {
+                if (overlap == maxOverlap) {
+                    recommended.or(filmsByUser.get(otherId));
+                }
+            });
+            recommended.andNot(liked);
+            recommended.stream().forEach(filmId -> filmIds.add((long) filmId));
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void set(int userId, int filmId) {
+        filmsByUser.computeIfAbsent(userId, id -> new BitSet()).set(filmId);
+        usersByFilm.computeIfAbsent(filmId, id -> new BitSet()).set(userId);
+    }
+
+    private static void clear(Map<Integer, BitSet> bitSets, int key, int bit) {
+        BitSet bitSet = bitSets.get(key);
+        if (bitSet != null) {
+            bitSet.clear(bit);
+            if (bitSet.isEmpty()) {
+                bitSets.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+@EqualsAndHashCode
+public final class IdSet {
+    private static final IdSet EMPTY = new IdSet(new long[0]);
+
+    private final long[] ids;
+
+    private IdSet(long[] ids) {
+        this.ids = ids;
+    }
+
+    public static IdSet of(long... ids) {
+        return builder(ids.length).addAll(ids).build();
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        for (long id : ids) {
+            consumer.accept(id);
+        }
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(ids);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(ids);
+    }
+
+    public static final class Builder {
+        private long[] ids;
+        private int size;
+
+        private Builder(int expectedSize) {
+            ids = new long[Math.max(expectedSize, 1)];
+        }
+
+        public Builder add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+            return this;
+        }
+
+        public Builder addAll(long... ids) {
+            for (long id : ids) {
+                add(id);
+            }
+            return this;
+        }
+
+        public IdSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            Arrays.sort(ids, 0, size);
+            int unique = 1;
+            for (int i = 1; i < size; i++) {
+                if (ids[i] != ids[unique - 1]) {
+                    ids[unique++] = ids[i];
+                }
+            }
+            return new IdSet(Arrays.copyOf(ids, unique));
+        }
+    }
+}
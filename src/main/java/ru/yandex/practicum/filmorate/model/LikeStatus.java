@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.model;
+
+public enum LikeStatus {
+    ADDED,
+    ALREADY_LIKED,
+    FILM_NOT_FOUND,
+    USER_NOT_FOUND
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Data
+public class PageCursor {
+    private static final char SEPARATOR = ':';
+
+    private final long sortKey;
+    private final long id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortKey + String.valueOf(SEPARATOR) + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("No separator in cursor " + cursor);
+        }
+        return new PageCursor(Long.parseLong(decoded.substring(0, separator)),
+                Long.parseLong(decoded.substring(separator + 1)));
+    }
+}
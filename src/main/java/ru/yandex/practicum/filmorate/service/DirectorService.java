@@ -2,8 +2,12 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 
 import java.util.List;
@@ -12,40 +16,62 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DirectorService {
     private final DirectorStorage directorStorage;
+    private final ReferenceDataCache referenceDataCache;
+    private final FilmSearchIndex filmSearchIndex;
 
     public Director getDirectorById(int id) {
         if (isIncorrectId(id)) {
             throw new WrongIdException("Param must be more then 0");
         }
 
-        return directorStorage.getDirectorById(id).orElseThrow(
+        return referenceDataCache.getDirector(id).orElseThrow(
                 () -> new WrongIdException("No director with id = " + id + " in DB was found."));
     }
 
     public List<Director> getDirectors() {
-        return directorStorage.getAllDirectors();
+        return referenceDataCache.getDirectors();
+    }
+
+    public Page<Director> getDirectorsPage(String cursor, int limit) {
+        Pagination.checkLimit(limit);
+        return Pagination.page(directorStorage.getPage(Pagination.cursor(cursor, Pagination.FIRST_BY_ID), limit),
+                limit, director -> new PageCursor(director.getId(), director.getId()));
     }
 
     public Director addDirector(Director director) {
-        return directorStorage.addDirector(director);
+        Director added = directorStorage.addDirector(director);
+        referenceDataCache.putDirector(added);
+        filmSearchIndex.putDirector(added);
+        return added;
     }
 
     public Director updateDirector(Director director) {
         if (!existsById(director.getId())) {
             throw new WrongIdException("No director with id = " + director.getId() + " in DB was found.");
         }
-        return directorStorage.updateDirector(director);
+        Director updated = directorStorage.updateDirector(director);
+        if (updated != null) {
+            referenceDataCache.putDirector(updated);
+            filmSearchIndex.putDirector(updated);
+        } else {
+            referenceDataCache.evictDirector(director.getId());
+            filmSearchIndex.removeDirector(director.getId());
+        }
+        return updated;
     }
 
     public long deleteDirector(int id) {
         if (isIncorrectId(id)) {
             throw new WrongIdException("Param must be more then 0");
         }
-        return directorStorage.deleteDirector(id);
+        long deleted = directorStorage.deleteDirector(id);
+        referenceDataCache.evictDirector(id);
+        filmSearchIndex.removeDirector(id);
+        return deleted;
     }
 
     public boolean existsById(int directorId) {
-        return !isIncorrectId(directorId) && directorStorage.existsById(directorId);
+        return !isIncorrectId(directorId) && referenceDataCache.getDirector(directorId).isPresent();
     }
 
     private boolean isIncorrectId(int id) {
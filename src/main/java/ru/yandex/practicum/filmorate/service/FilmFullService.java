@@ -3,42 +3,92 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationIndex;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
-import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmFullService {
+    private static final int HYDRATION_CHUNK_SIZE = 500;
     private final FilmStorage filmStorage;
     private final DirectorStorage directorStorage;
     private final GenreStorage genreStorage;
-    private final MpaStorage mpaStorage;
+    private final ReferenceDataCache referenceDataCache;
+    private final PopularityIndex popularityIndex;
+    private final RecommendationIndex recommendationIndex;
+    private final FilmSearchIndex filmSearchIndex;
 
     public Film getFilmById(long filmId) {
         if (isIncorrectId(filmId)) {
             throw new WrongIdException("Param must be more then 0");
         }
-        Optional<Film> filmOpt = filmStorage.getById(filmId);
-
-        return addAttributesToFilm(
-                filmOpt.orElseThrow(() -> new WrongIdException("No film with id = " + filmId + " in DB was found.")));
+        Film film = filmStorage.getWithLinksById(filmId)
+                .orElseThrow(() -> new WrongIdException("No film with id = " + filmId + " in DB was found."));
+        List<Integer> genreIds = film.getGenres().stream().map(Genre::getId).collect(Collectors.toList());
+        List<Integer> directorIds = film.getDirectors().stream().map(Director::getId).collect(Collectors.toList());
+        resolveAttributes(film, genreIds, directorIds, referenceDataCache.getDirectors(directorIds));
+        return film;
     }
 
     public List<Film> getAllFilms() {
         return addAttributesToFilms(filmStorage.getAllFilms());
     }
 
+    public void forEachFilm(Consumer<Film> consumer) {
+        PageCursor after = Pagination.FIRST_BY_ID;
+        List<Film> chunk;
+        do {
+            chunk = addAttributesToFilms(filmStorage.getPage(after, HYDRATION_CHUNK_SIZE));
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                long lastId = chunk.get(chunk.size() - 1).getId();
+                after = new PageCursor(lastId, lastId);
+            }
+        } while (chunk.size() == HYDRATION_CHUNK_SIZE);
+    }
+
     public List<Film> getTopFilms(int count, Integer genreId, String year) {
-        return addAttributesToFilms(filmStorage.getPopular(count, genreId, year));
+        if (!popularityIndex.isEnabled()) {
+            return addAttributesToFilms(filmStorage.getPopular(count, genreId, year));
+        }
+        return addAttributesToFilms(filmStorage.getByIds(popularityIndex.getTop(count, genreId, parseYear(year))));
+    }
+
+    public Page<Film> getFilmsPage(PageCursor after, int limit) {
+        return Pagination.page(addAttributesToFilms(filmStorage.getPage(after, limit)), limit,
+                film -> new PageCursor(film.getId(), film.getId()));
+    }
+
+    public Page<Film> getPopularPage(PageCursor after, int count, Integer genreId, String year) {
+        if (!popularityIndex.isEnabled()) {
+            return Pagination.page(addAttributesToFilms(filmStorage.getPopularPage(after, count, genreId, year)),
+                    count, film -> new PageCursor(filmStorage.getLikesCount(film.getId()), film.getId()));
+        }
+        List<Long> filmIds = popularityIndex.getTop(count, genreId, parseYear(year),
+                (int) Math.min(after.getSortKey(), Integer.MAX_VALUE), after.getId());
+        return Pagination.page(addAttributesToFilms(filmStorage.getByIds(filmIds)), count,
+                film -> new PageCursor(popularityIndex.getLikes(film.getId()), film.getId()));
     }
 
     public List<Film> getTopByDirector(int id, String sortBy) {
@@ -50,11 +100,17 @@ public class FilmFullService {
     }
 
     public List<Film> searchFilms(String query, String by) {
-        return addAttributesToFilms(filmStorage.searchFilms(query, by));
+        if (!filmSearchIndex.isEnabled() || !popularityIndex.isEnabled()) {
+            return addAttributesToFilms(filmStorage.searchFilms(query, by));
+        }
+        return addAttributesToFilms(filmStorage.getByIds(filmSearchIndex.search(query, by)));
     }
 
     public List<Film> getRecommendations(long userId) {
-        return addAttributesToFilms(filmStorage.getRecommendations(userId));
+        if (!recommendationIndex.isEnabled()) {
+            return addAttributesToFilms(filmStorage.getRecommendations(userId));
+        }
+        return addAttributesToFilms(filmStorage.getByIds(recommendationIndex.getRecommendations(userId)));
     }
 
     public Film update(Film film) {
@@ -65,11 +121,20 @@ public class FilmFullService {
         return id <= 0;
     }
 
+    private Integer parseYear(String year) {
+        if (year == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(year);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Year must be a number, but was " + year);
+        }
+    }
+
     private Film addAttributesToFilm(Film film) {
         if (film != null) {
-            film.setGenres(genreStorage.getByFilmId(film.getId()));
-            film.setDirectors(directorStorage.getByFilmId(film.getId()));
-            film.setMpa(mpaStorage.getMpaByFilmId(film.getId()).orElse(null));
+            addAttributesToFilms(List.of(film));
         }
         return film;
     }
@@ -79,11 +144,34 @@ public class FilmFullService {
         if (filmList.isEmpty()) {
             return fullFilmList;
         }
+        List<Long> filmIds = filmList.stream().map(Film::getId).distinct().collect(Collectors.toList());
+        Map<Long, List<Integer>> genreIds = genreStorage.getIdsByFilmIds(filmIds);
+        Map<Long, List<Integer>> directorIds = directorStorage.getIdsByFilmIds(filmIds);
+        Map<Integer, Director> directors = referenceDataCache.getDirectors(directorIds.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toSet()));
         for (Film film : filmList) {
-            fullFilmList.add(addAttributesToFilm(film));
+            resolveAttributes(film, genreIds.getOrDefault(film.getId(), List.of()),
+                    directorIds.getOrDefault(film.getId(), List.of()), directors);
+            fullFilmList.add(film);
         }
         return fullFilmList;
     }
+
+    private void resolveAttributes(Film film, List<Integer> genreIds, List<Integer> directorIds,
+                                   Map<Integer, Director> directors) {
+        film.setGenres(genreIds.stream()
+                .map(referenceDataCache::getGenre)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList()));
+        film.setDirectors(directorIds.stream()
+                .map(directors::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        if (film.getMpa() != null) {
+            film.setMpa(referenceDataCache.getMpa(film.getMpa().getId()).orElse(null));
+        }
+    }
 }
 
 
@@ -3,15 +3,28 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationIndex;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.storage.FeedStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.LikeStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -19,18 +32,29 @@ import java.util.List;
 public class FilmService {
     private static final LocalDate EARLIEST_FILM_RELEASE = LocalDate.of(1895, 12, 5);
     private static final int DEFAULT_FILMS_COUNT = 10;
+    private static final int MAX_LIKES_BATCH = 10_000;
+    private static final int LIKE_LOCK_STRIPES = 64;
     private final FilmStorage filmStorage;
     private final LikeStorage likeStorage;
     private final FeedStorage feedStorage;
     private final UserService userService;
     private final DirectorService directorService;
     private final FilmFullService filmFullService;
+    private final PopularityIndex popularityIndex;
+    private final RecommendationIndex recommendationIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final ResourceVersions resourceVersions;
+    private final Lock[] likeLocks = newLocks(LIKE_LOCK_STRIPES);
 
     public Film addFilm(Film film) {
         if (isNotValid(film)) {
             throw new ValidationException("Film validation has been failed");
         }
-        return filmStorage.add(film);
+        Film added = filmStorage.add(film);
+        popularityIndex.putFilm(added);
+        filmSearchIndex.putFilm(added);
+        resourceVersions.filmChanged(added.getId());
+        return added;
     }
 
     public Film update(Film film) {
@@ -40,28 +64,86 @@ public class FilmService {
         if (!existsById(film.getId())) {
             throw new WrongIdException("No film with id = " + film.getId() + " in DB was found.");
         }
-        return filmFullService.update(film);
+        Film updated = filmFullService.update(film);
+        popularityIndex.putFilm(updated);
+        filmSearchIndex.putFilm(updated);
+        resourceVersions.filmChanged(updated.getId());
+        return updated;
     }
 
     public void addLike(long userId, long filmId) {
-        if (existsById(filmId) && userService.existsById(userId)) {
-            if (likeStorage.getLikesByFilmId(filmId).contains(userId)) {
-                feedStorage.addLike(userId, filmId);
-                return;
+        boolean added;
+        Lock lock = likeLocks[likeStripe(userId, filmId)];
+        lock.lock();
+        try {
+            added = likeStorage.addLike(userId, filmId);
+            if (added) {
+                recommendationIndex.addLike(userId, filmId);
             }
-            likeStorage.addLike(userId, filmId);
-            feedStorage.addLike(userId, filmId);
+        } finally {
+            lock.unlock();
         }
+        if (added) {
+            popularityIndex.changeLikes(filmId, 1);
+            resourceVersions.likesChanged();
+        } else {
+            requireFilmAndUser(filmId, userId);
+        }
+        feedStorage.addLike(userId, filmId);
+    }
+
+    public List<LikeResult> addLikes(List<LikePair> likes) {
+        if (likes.size() > MAX_LIKES_BATCH) {
+            throw new ValidationException("No more than " + MAX_LIKES_BATCH + " likes can be sent in one batch");
+        }
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+        List<LikeResult> results;
+        List<Lock> locks = likeLocks(likes);
+        locks.forEach(Lock::lock);
+        try {
+            results = likeStorage.addLikes(likes);
+            for (LikeResult result : results) {
+                if (result.getStatus() == LikeStatus.ADDED) {
+                    recommendationIndex.addLike(result.getUserId(), result.getFilmId());
+                }
+            }
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+        resourceVersions.likesChanged();
+        List<LikePair> liked = new ArrayList<>(results.size());
+        for (LikeResult result : results) {
+            if (result.getStatus() == LikeStatus.ADDED) {
+                popularityIndex.changeLikes(result.getFilmId(), 1);
+            }
+            if (result.getStatus() == LikeStatus.ADDED || result.getStatus() == LikeStatus.ALREADY_LIKED) {
+                liked.add(new LikePair(result.getUserId(), result.getFilmId()));
+            }
+        }
+        feedStorage.addLikes(liked);
+        return results;
     }
 
     public void deleteLike(long userId, long filmId) {
-        if (!existsById(filmId)) {
-            throw new WrongIdException("No film with id = " + filmId + " in DB was found.");
+        boolean deleted;
+        Lock lock = likeLocks[likeStripe(userId, filmId)];
+        lock.lock();
+        try {
+            deleted = likeStorage.deleteLike(userId, filmId);
+            if (deleted) {
+                recommendationIndex.removeLike(userId, filmId);
+            }
+        } finally {
+            lock.unlock();
         }
-        if (!userService.existsById(userId)) {
-            throw new WrongIdException("No user with id = " + userId + " in DB was found.");
+        if (deleted) {
+            popularityIndex.changeLikes(filmId, -1);
+            resourceVersions.likesChanged();
+        } else {
+            requireFilmAndUser(filmId, userId);
         }
-        likeStorage.deleteLike(userId, filmId);
         feedStorage.deleteLike(userId, filmId);
     }
 
@@ -70,21 +152,39 @@ public class FilmService {
             throw new WrongIdException("Param must be more then 0");
         }
         filmStorage.delete(id);
+        popularityIndex.removeFilm(id);
+        recommendationIndex.removeFilm(id);
+        filmSearchIndex.removeFilm(id);
+        resourceVersions.filmChanged(id);
     }
 
     public Film getFilmById(long filmId) {
         return filmFullService.getFilmById(filmId);
     }
 
-    public List<Film> getAllFilms() {
-        return filmFullService.getAllFilms();
+    public void forEachFilm(Consumer<Film> consumer) {
+        filmFullService.forEachFilm(consumer);
     }
 
     public List<Film> getTopFilms(int count, Integer genreId, String year) {
+        return filmFullService.getTopFilms(popularCount(count), genreId, year);
+    }
+
+    public Page<Film> getFilmsPage(String cursor, int limit) {
+        Pagination.checkLimit(limit);
+        return filmFullService.getFilmsPage(Pagination.cursor(cursor, Pagination.FIRST_BY_ID), limit);
+    }
+
+    public Page<Film> getPopularPage(String cursor, int count, Integer genreId, String year) {
+        return filmFullService.getPopularPage(Pagination.cursor(cursor, Pagination.FIRST_BY_RANK),
+                popularCount(count), genreId, year);
+    }
+
+    public int popularCount(int count) {
         if (count <= 0) {
-            count = DEFAULT_FILMS_COUNT;
+            return DEFAULT_FILMS_COUNT;
         }
-        return filmFullService.getTopFilms(count, genreId, year);
+        return Math.min(count, Pagination.MAX_LIMIT);
     }
 
     public List<Film> getTopByDirector(int id, String sortBy) {
@@ -109,6 +209,15 @@ public class FilmService {
         return !isIncorrectId(filmId) && filmStorage.existsById(filmId);
     }
 
+    private void requireFilmAndUser(long filmId, long userId) {
+        if (!existsById(filmId)) {
+            throw new WrongIdException("No film with id = " + filmId + " in DB was found.");
+        }
+        if (!userService.existsById(userId)) {
+            throw new WrongIdException("No user with id = " + userId + " in DB was found.");
+        }
+    }
+
     private boolean isIncorrectId(long id) {
         return id <= 0;
     }
@@ -116,4 +225,26 @@ public class FilmService {
     private boolean isNotValid(Film film) {
         return film.getReleaseDate().isBefore(EARLIEST_FILM_RELEASE);
     }
-}
\ No newline at end of file
+
+    private List<Lock> likeLocks(List<LikePair> likes) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (LikePair like : likes) {
+            stripes.add(likeStripe(like.getUserId(), like.getFilmId()));
+        }
+        List<Lock> locks = new ArrayList<>(stripes.size());
+        stripes.forEach(stripe -> locks.add(likeLocks[stripe]));
+        return locks;
+    }
+
+    private static int likeStripe(long userId, long filmId) {
+        return Math.floorMod(Long.hashCode(userId * 31 + filmId), LIKE_LOCK_STRIPES);
+    }
+
+    private static Lock[] newLocks(int count) {
+        Lock[] locks = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -2,9 +2,9 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
 import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,17 +12,17 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class MpaService {
-    private final MpaStorage mpaStorage;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<Mpa> getAll() {
-        return mpaStorage.getAll();
+        return referenceDataCache.getMpas();
     }
 
     public Mpa getById(int id) {
         if (isIncorrectId(id)) {
             throw new WrongIdException("Param must be more then 0");
         }
-        Optional<Mpa> mpaOpt = mpaStorage.getById(id);
+        Optional<Mpa> mpaOpt = referenceDataCache.getMpa(id);
 
         return mpaOpt.orElseThrow(() -> new WrongIdException("No such Mpa with id = " + id + " in DB was found"));
     }
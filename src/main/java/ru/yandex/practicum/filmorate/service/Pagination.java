@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PageCursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class Pagination {
+    static final PageCursor FIRST_BY_ID = new PageCursor(0, 0);
+    static final PageCursor FIRST_BY_RANK = new PageCursor(Integer.MAX_VALUE, 0);
+    static final int MAX_LIMIT = 1000;
+
+    private Pagination() {
+    }
+
+    static PageCursor cursor(String cursor, PageCursor first) {
+        if (cursor == null || cursor.isEmpty()) {
+            return first;
+        }
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Malformed page cursor " + cursor);
+        }
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Page limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    static <T> Page<T> page(List<T> items, int limit, Function<T, PageCursor> cursorOf) {
+        if (items.size() < limit) {
+            return new Page<>(items, null);
+        }
+        return new Page<>(items, cursorOf.apply(items.get(items.size() - 1)).encode());
+    }
+}
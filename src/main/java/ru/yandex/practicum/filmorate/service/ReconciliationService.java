@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.ReviewLikeStorage;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService {
+    private final LikeStorage likeStorage;
+    private final ReviewLikeStorage reviewLikeStorage;
+    private final FilmStorage filmStorage;
+    @Value("${filmorate.popularity-rollup.verify-interval-ms:600000}")
+    private final long rollupVerifyIntervalMs;
+
+    private ScheduledExecutorService rollupVerifier;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileLikesCount();
+        reconcileReviewUseful();
+        reconcilePopularityRollup();
+        if (rollupVerifyIntervalMs > 0) {
+            rollupVerifier = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> new Thread(runnable, "rollup-verifier"));
+            rollupVerifier.scheduleWithFixedDelay(this::verifyRollupQuietly,
+                    rollupVerifyIntervalMs, rollupVerifyIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rollupVerifier != null) {
+            rollupVerifier.shutdown();
+        }
+    }
+
+    public void reconcileLikesCount() {
+        int fixed = likeStorage.recountLikes();
+        if (fixed > 0) {
+            log.warn("Likes counters of {} films drifted and have been recomputed", fixed);
+        } else {
+            log.info("Likes counters are consistent");
+        }
+    }
+
+    public void reconcileReviewUseful() {
+        int fixed = reviewLikeStorage.recountUseful();
+        if (fixed > 0) {
+            log.warn("Usefulness scores of {} reviews drifted and have been recomputed", fixed);
+        } else {
+            log.info("Review usefulness scores are consistent");
+        }
+    }
+
+    public void reconcilePopularityRollup() {
+        int fixed = filmStorage.reconcilePopularityRollup();
+        if (fixed > 0) {
+            log.warn("Popularity rollup had {} drifted rows and has been repaired", fixed);
+        } else {
+            log.info("Popularity rollup is consistent");
+        }
+    }
+
+    private void verifyRollupQuietly() {
+        try {
+            reconcilePopularityRollup();
+        } catch (RuntimeException e) {
+            log.error("Popularity rollup verification failed", e);
+        }
+    }
+}
@@ -4,13 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.FeedStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewLikeStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -69,49 +71,51 @@ public class ReviewService {
         return reviewOpt.orElseThrow(() -> new WrongIdException("No review with id = " + id + " in DB was found."));
     }
 
-    public List<Review> getAllReviews() {
-        return reviewStorage.getAllReviews();
-    }
-
-    public List<Review> getReviewsByFilmId(Long filmId, int count) {
+    public void forEachReview(Long filmId, int count, Consumer<Review> consumer) {
         if (filmId == DUMMY_PARAM_VALUE || !filmService.existsById(filmId)) {
-            return getAllReviews();
+            reviewStorage.forEachReview(consumer);
+            return;
         }
-        return reviewStorage.getReviewsByFilmId(filmId, count);
+        reviewStorage.getReviewsByFilmId(filmId, count).forEach(consumer);
+    }
+
+    public Page<Review> getReviewsPage(Long filmId, String cursor, int limit) {
+        Pagination.checkLimit(limit);
+        Long pageFilmId = filmId == DUMMY_PARAM_VALUE ? null : filmId;
+        return Pagination.page(
+                reviewStorage.getPage(Pagination.cursor(cursor, Pagination.FIRST_BY_RANK), limit, pageFilmId),
+                limit, review -> new PageCursor(review.getUseful(), review.getReviewId()));
     }
 
     public void addLikeToReview(long id, long userId) {
-        if (!userService.existsById(userId)) {
-            throw new WrongIdException("No user with id = " + userId + " in DB was found.");
+        if (!reviewLikeStorage.addLike(id, userId)) {
+            requireReviewAndUser(id, userId);
         }
-        if (!existsById(id)) {
-            throw new WrongIdException("No review with id = " + id + " in DB was found.");
-        }
-        reviewLikeStorage.addLike(id, userId);
     }
 
     public void addDislikeToReview(long id, long userId) {
-        if (!userService.existsById(userId)) {
-            throw new WrongIdException("No user with id = " + userId + " in DB was found.");
+        if (!reviewLikeStorage.addDislike(id, userId)) {
+            requireReviewAndUser(id, userId);
         }
-        if (!existsById(id)) {
-            throw new WrongIdException("No review with id = " + id + " in DB was found.");
-        }
-        reviewLikeStorage.addDislike(id, userId);
     }
 
     public void deleteLikeOrDislike(long id, long userId) {
+        if (!reviewLikeStorage.deleteLikeOrDislike(id, userId)) {
+            requireReviewAndUser(id, userId);
+        }
+    }
+
+    public boolean existsById(Long reviewId) {
+        return !isIncorrectId(reviewId) && reviewStorage.existsById(reviewId);
+    }
+
+    private void requireReviewAndUser(long id, long userId) {
         if (!userService.existsById(userId)) {
             throw new WrongIdException("No user with id = " + userId + " in DB was found.");
         }
         if (!existsById(id)) {
             throw new WrongIdException("No review with id = " + id + " in DB was found.");
         }
-        reviewLikeStorage.deleteLikeOrDislike(id, userId);
-    }
-
-    public boolean existsById(Long reviewId) {
-        return !isIncorrectId(reviewId) && reviewStorage.existsById(reviewId);
     }
 
     private boolean isIncorrectId(long id) {
@@ -3,27 +3,46 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.exception.WrongIdException;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationIndex;
 import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FeedStorage;
 import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int FRIENDSHIP_LOCK_STRIPES = 64;
+
     private final UserStorage userStorage;
     private final FriendStorage friendStorage;
     private final FeedStorage feedStorage;
+    private final LikeStorage likeStorage;
     private final FilmFullService filmFullService;
+    private final PopularityIndex popularityIndex;
+    private final RecommendationIndex recommendationIndex;
+    private final FriendGraph friendGraph;
+    private final ResourceVersions resourceVersions;
+    private final Lock[] friendshipLocks = newLocks(FRIENDSHIP_LOCK_STRIPES);
 
     public User create(User user) {
         changeNameToLogin(user);
@@ -46,40 +65,71 @@ public class UserService {
         return userStorage.update(user);
     }
 
-    public List<User> getAll() {
-        return userStorage.getAll();
+    public void forEachUser(Consumer<User> consumer) {
+        userStorage.forEachUser(consumer);
+    }
+
+    public Page<User> getUsersPage(String cursor, int limit) {
+        Pagination.checkLimit(limit);
+        return Pagination.page(userStorage.getPage(Pagination.cursor(cursor, Pagination.FIRST_BY_ID), limit), limit,
+                user -> new PageCursor(user.getId(), user.getId()));
     }
 
     public void deleteUserById(long id) {
         if (isIncorrectId(id)) {
             throw new WrongIdException("Param must be more then 0");
         }
+        IdSet likedFilms = likeStorage.getLikesByUserId(id);
         userStorage.delete(id);
+        likedFilms.forEach(filmId -> popularityIndex.changeLikes(filmId, -1));
+        recommendationIndex.removeUser(id);
+        friendGraph.removeUser(id);
+        if (!likedFilms.isEmpty()) {
+            resourceVersions.likesChanged();
+        }
     }
 
     public void addFriend(long userId, long friendId) {
-        if (!existsById(userId) || !existsById(friendId)) {
-            throw new WrongIdException("No users with id = " + userId + " or " + friendId + " in DB were found.");
+        boolean added;
+        Lock lock = friendshipLock(userId, friendId);
+        lock.lock();
+        try {
+            added = friendStorage.addFriend(userId, friendId);
+            if (added) {
+                friendGraph.addFriend(userId, friendId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (added) {
+            feedStorage.addFriendRequest(userId, friendId);
+        } else {
+            requireUsers(userId, friendId);
         }
-        friendStorage.addFriend(userId, friendId);
-        feedStorage.addFriendRequest(userId, friendId);
     }
 
     public void deleteFriend(long userId, long friendId) {
-        if (!existsById(userId) || !existsById(friendId)) {
-            throw new WrongIdException("No users with id = " + userId + " or " + friendId + " in DB were found.");
+        boolean deleted;
+        Lock lock = friendshipLock(userId, friendId);
+        lock.lock();
+        try {
+            deleted = friendStorage.deleteFriend(userId, friendId);
+            if (deleted) {
+                friendGraph.removeFriend(userId, friendId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!deleted) {
+            requireUsers(userId, friendId);
         }
-
-        friendStorage.deleteFriend(userId, friendId);
         feedStorage.deleteFriendRequest(userId, friendId);
     }
 
     public void updateFriendRequest(long userId, long friendId) {
-        if (!existsById(userId) || !existsById(friendId)) {
-            throw new WrongIdException("No users with id = " + userId + " or " + friendId + " in DB were found.");
+        if (!friendStorage.acceptFriendRequest(userId, friendId)) {
+            requireUsers(userId, friendId);
         }
-
-        friendStorage.acceptFriendRequest(userId, friendId);
         feedStorage.acceptFriendRequest(userId, friendId);
     }
 
@@ -88,15 +138,32 @@ public class UserService {
             throw new WrongIdException("No users with id = " + userId + " or " + otherId + " in DB were found.");
         }
 
-        return userStorage.getCommonFriends(userId, otherId);
+        if (!friendGraph.isEnabled()) {
+            return userStorage.getCommonFriends(userId, otherId);
+        }
+        return userStorage.getByIds(friendGraph.getCommonFriends(userId, otherId));
+    }
+
+    public void forEachEvent(long userId, long afterEventId, int limit, Consumer<Feed> consumer) {
+        feedStorage.forEachFeed(userId, afterEventId, limit, consumer);
+    }
+
+    public Page<Feed> getFeedPage(long userId, long afterEventId, int limit) {
+        checkFeedRequest(userId, afterEventId, limit);
+        List<Feed> events = feedStorage.getFeed(userId, afterEventId, limit);
+        if (events.size() < limit) {
+            return new Page<>(events, null);
+        }
+        return new Page<>(events, String.valueOf(events.get(events.size() - 1).getEventId()));
     }
 
-    public List<Feed> getEventsList(long userId) {
+    public void checkFeedRequest(long userId, long afterEventId, int limit) {
         if (!existsById(userId)) {
             throw new WrongIdException("No user with id = " + userId + " in DB was found.");
         }
-
-        return feedStorage.getFeed(userId);
+        if (afterEventId < 0 || limit <= 0) {
+            throw new ValidationException("Feed cursor must not be negative and limit must be positive");
+        }
     }
 
     public User getById(long userId) {
@@ -113,7 +180,23 @@ public class UserService {
             throw new WrongIdException("No user with id = " + userId + " in DB was found.");
         }
 
-        return userStorage.getFriendsByUserId(userId);
+        if (!friendGraph.isEnabled()) {
+            return userStorage.getFriendsByUserId(userId);
+        }
+        return userStorage.getByIds(friendGraph.getFriends(userId));
+    }
+
+    public List<User> getFriendSuggestions(long userId, int count) {
+        if (!existsById(userId)) {
+            throw new WrongIdException("No user with id = " + userId + " in DB was found.");
+        }
+        if (count <= 0) {
+            throw new ValidationException("Count must be positive");
+        }
+        if (!friendGraph.isEnabled()) {
+            return userStorage.getFriendSuggestions(userId, count);
+        }
+        return userStorage.getByIds(friendGraph.getSuggestions(userId, count));
     }
 
     public List<Film> getRecommendations(long userId) {
@@ -128,6 +211,12 @@ public class UserService {
         return !isIncorrectId(userId) && userStorage.existsById(userId);
     }
 
+    private void requireUsers(long userId, long friendId) {
+        if (!existsById(userId) || !existsById(friendId)) {
+            throw new WrongIdException("No users with id = " + userId + " or " + friendId + " in DB were found.");
+        }
+    }
+
     private boolean isIncorrectId(long id) {
         return id <= 0;
     }
@@ -143,4 +232,16 @@ public class UserService {
             user.setName(user.getLogin());
         }
     }
-}
\ No newline at end of file
+
+    private Lock friendshipLock(long userId, long friendId) {
+        return friendshipLocks[Math.floorMod(Long.hashCode(userId * 31 + friendId), FRIENDSHIP_LOCK_STRIPES)];
+    }
+
+    private static Lock[] newLocks(int count) {
+        Lock[] locks = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
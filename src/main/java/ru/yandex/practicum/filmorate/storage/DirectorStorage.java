@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface DirectorStorage {
@@ -12,11 +15,15 @@ public interface DirectorStorage {
 
     List<Director> getAllDirectors();
 
+    List<Director> getPage(PageCursor after, int limit);
+
     Director updateDirector(Director director);
 
     long deleteDirector(long id);
 
-    List<Director> getByFilmId(long filmId);
+    List<Director> getByIds(Collection<Integer> ids);
+
+    Map<Long, List<Integer>> getIdsByFilmIds(Collection<Long> filmIds);
 
     boolean existsById(long id);
 }
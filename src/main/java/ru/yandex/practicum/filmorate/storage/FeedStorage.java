@@ -1,13 +1,18 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.LikePair;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FeedStorage {
 
     void addLike(long userId, long entityId);
 
+    void addLikes(Collection<LikePair> likes);
+
     void deleteLike(long userId, long entityId);
 
     void addReview(long userId, long entityId);
@@ -22,6 +27,8 @@ public interface FeedStorage {
 
     void acceptFriendRequest(long userId, long entityId);
 
-    List<Feed> getFeed(long userId);
+    List<Feed> getFeed(long userId, long afterEventId, int limit);
+
+    void forEachFeed(long userId, long afterEventId, int limit, Consumer<Feed> consumer);
 
 }
@@ -1,7 +1,9 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +16,24 @@ public interface FilmStorage {
 
     Optional<Film> getById(Long filmId);
 
+    Optional<Film> getWithLinksById(long filmId);
+
     List<Film> getAllFilms();
 
+    List<Film> getPage(PageCursor after, int limit);
+
+    List<Film> getByIds(Collection<Long> filmIds);
+
     List<Film> getTopByDirector(int id, String sortBy);
 
     List<Film> getPopular(int count, Integer genreId, String year);
 
+    List<Film> getPopularPage(PageCursor after, int limit, Integer genreId, String year);
+
+    int getLikesCount(long filmId);
+
+    int reconcilePopularityRollup();
+
     List<Film> getCommonFilms(long userId, long friendId);
 
     List<Film> searchFilms(String query, String by);
@@ -1,9 +1,13 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import java.util.function.BiConsumer;
+
 public interface FriendStorage {
-    void addFriend(long userId, long friendId);
+    boolean addFriend(long userId, long friendId);
+
+    boolean deleteFriend(long userId, long friendId);
 
-    void deleteFriend(long userId, long friendId);
+    boolean acceptFriendRequest(long userId, long friendId);
 
-    void acceptFriendRequest(long userId, long friendId);
+    void forEachFriendship(BiConsumer<Long, Long> userFriendConsumer);
 }
@@ -2,7 +2,9 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface GenreStorage {
@@ -10,5 +12,5 @@ public interface GenreStorage {
 
     Optional<Genre> getById(int id);
 
-    List<Genre> getByFilmId(long filmId);
+    Map<Long, List<Integer>> getIdsByFilmIds(Collection<Long> filmIds);
 }
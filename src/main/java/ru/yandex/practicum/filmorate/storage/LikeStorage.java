@@ -1,13 +1,28 @@
 package ru.yandex.practicum.filmorate.storage;
 
-import java.util.Set;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 public interface LikeStorage {
-    void addLike(long userId, long filmId);
+    boolean addLike(long userId, long filmId);
+
+    boolean deleteLike(long userId, long filmId);
+
+    List<LikeResult> addLikes(Collection<LikePair> likes);
+
+    IdSet getLikesByFilmId(long filmId);
+
+    IdSet getLikesByUserId(long userId);
 
-    void deleteLike(long userId, long filmId);
+    Map<Long, Integer> getLikesCountByFilmId();
 
-    Set<Long> getLikesByFilmId(Long filmId);
+    void forEachLike(BiConsumer<Long, Long> userFilmConsumer);
 
-    Set<Long> getLikesByUserId(Long userId);
+    int recountLikes();
 }
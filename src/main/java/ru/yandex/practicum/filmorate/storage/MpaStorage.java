@@ -9,6 +9,4 @@ public interface MpaStorage {
     List<Mpa> getAll();
 
     Optional<Mpa> getById(int id);
-
-    Optional<Mpa> getMpaByFilmId(long filmId);
 }
@@ -1,9 +1,11 @@
 package ru.yandex.practicum.filmorate.storage;
 
 public interface ReviewLikeStorage {
-    void addLike(long reviewId, long userId);
+    boolean addLike(long reviewId, long userId);
 
-    void addDislike(long reviewId, long userId);
+    boolean addDislike(long reviewId, long userId);
 
-    void deleteLikeOrDislike(long reviewId, long userId);
+    boolean deleteLikeOrDislike(long reviewId, long userId);
+
+    int recountUseful();
 }
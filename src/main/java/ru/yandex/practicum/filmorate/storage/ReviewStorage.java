@@ -1,9 +1,11 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.Review;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ReviewStorage {
     Review addReview(Review review);
@@ -16,7 +18,11 @@ public interface ReviewStorage {
 
     List<Review> getAllReviews();
 
+    void forEachReview(Consumer<Review> consumer);
+
     List<Review> getReviewsByFilmId(long filmId, int count);
 
+    List<Review> getPage(PageCursor after, int limit, Long filmId);
+
     boolean existsById(long id);
 }
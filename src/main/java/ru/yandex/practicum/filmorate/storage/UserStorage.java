@@ -1,9 +1,12 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User add(User user);
@@ -16,9 +19,17 @@ public interface UserStorage {
 
     List<User> getAll();
 
+    List<User> getByIds(Collection<Long> userIds);
+
+    void forEachUser(Consumer<User> consumer);
+
+    List<User> getPage(PageCursor after, int limit);
+
     List<User> getCommonFriends(long userId, long otherId);
 
     List<User> getFriendsByUserId(long userId);
 
+    List<User> getFriendSuggestions(long userId, int count);
+
     boolean existsById(long id);
 }
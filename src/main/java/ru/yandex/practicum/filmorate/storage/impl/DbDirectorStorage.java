@@ -8,24 +8,40 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class DbDirectorStorage implements DirectorStorage {
+    private static final String GET_BY_ID_SQL = "select * from directors where id = ?";
+    private static final String INSERT_SQL = "insert into directors (name) values (?)";
+    private static final String GET_ALL_SQL = "select * from directors";
+    private static final String GET_PAGE_SQL = "select * from directors where id > ? order by id limit ?";
+    private static final String UPDATE_SQL = "update directors set name = ? where id = ?";
+    private static final String DELETE_SQL = "delete from directors where id = ?";
+    private static final String GET_BY_IDS_SQL = "select * from directors where id in (%s)";
+    private static final String GET_IDS_BY_FILM_IDS_SQL =
+            "select film_id, director_id from film_director where film_id in (%s)";
+    private static final String EXISTS_SQL = "select count(1) from directors where id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Optional<Director> getDirectorById(int id) {
         try {
-            return Optional.ofNullable(jdbcTemplate.queryForObject("select * from directors where id = ?",
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL,
                     (rs, RowNum) -> new Director(rs.getInt("id"), rs.getString("name")), id));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
@@ -35,10 +51,8 @@ public class DbDirectorStorage implements DirectorStorage {
     @Override
     public Director addDirector(Director director) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        String sqlQuery = "insert into directors (name) values (?)";
-
         jdbcTemplate.update(con -> {
-            PreparedStatement statement = con.prepareStatement(sqlQuery, new String[]{"id"});
+            PreparedStatement statement = con.prepareStatement(INSERT_SQL, new String[]{"id"});
             statement.setString(1, director.getName());
             return statement;
         }, keyHolder);
@@ -51,13 +65,18 @@ public class DbDirectorStorage implements DirectorStorage {
 
     @Override
     public List<Director> getAllDirectors() {
-        return jdbcTemplate.query("select * from directors",
+        return jdbcTemplate.query(GET_ALL_SQL,
                 (rs, RowNum) -> new Director(rs.getInt("id"), rs.getString("name")));
     }
 
+    @Override
+    public List<Director> getPage(PageCursor after, int limit) {
+        return jdbcTemplate.query(GET_PAGE_SQL, (rs, rowNum) -> mapper(rs), after.getId(), limit);
+    }
+
     @Override
     public Director updateDirector(Director director) {
-        jdbcTemplate.update("update directors set name = ? where id = ?",
+        jdbcTemplate.update(UPDATE_SQL,
                 director.getName(),
                 director.getId());
         log.info("Director {} updated", director.getId());
@@ -66,23 +85,41 @@ public class DbDirectorStorage implements DirectorStorage {
 
     @Override
     public long deleteDirector(long id) {
-        jdbcTemplate.update("delete from directors where id = ?", id);
+        jdbcTemplate.update(DELETE_SQL, id);
         return id;
     }
 
     @Override
-    public List<Director> getByFilmId(long filmId) {
-        return jdbcTemplate.query(
-                "select * from directors where id in (select director_id from film_director where film_id = ?)",
-                (rs, RowNum) -> mapper(rs),
-                filmId);
+    public List<Director> getByIds(Collection<Integer> ids) {
+        List<Director> directors = new ArrayList<>();
+        for (List<Integer> chunk : SqlParams.chunks(ids)) {
+            directors.addAll(jdbcTemplate.query(
+                    String.format(GET_BY_IDS_SQL, SqlParams.placeholders(chunk.size())),
+                    (rs, RowNum) -> mapper(rs),
+                    chunk.toArray()));
+        }
+        return directors;
+    }
+
+    @Override
+    public Map<Long, List<Integer>> getIdsByFilmIds(Collection<Long> filmIds) {
+        Map<Long, List<Integer>> directorIds = new HashMap<>();
+        for (List<Long> chunk : SqlParams.chunks(filmIds)) {
+            jdbcTemplate.query(
+                    String.format(GET_IDS_BY_FILM_IDS_SQL, SqlParams.placeholders(chunk.size())),
+                    rs -> {
+                        directorIds.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>())
+                                .add(rs.getInt("director_id"));
+                    },
+                    chunk.toArray());
+        }
+        return directorIds;
     }
 
     @Override
     public boolean existsById(long id) {
-            Integer count = jdbcTemplate.queryForObject(
-                    "select count(1) from directors where id=?", Integer.class, id);
-            return count == 1;
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, id);
+        return count == 1;
     }
 
     private Director mapper(ResultSet resultSet) throws SQLException {
@@ -2,43 +2,55 @@ package ru.yandex.practicum.filmorate.storage.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.LikePair;
 import ru.yandex.practicum.filmorate.model.Operation;
 import ru.yandex.practicum.filmorate.storage.FeedStorage;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class DbFeedStorage implements FeedStorage {
-    private static final String INSERT_SQL =
-            "insert into events(timestamp, operation, event_type, user_id, entity_id) values(?, ?, ?, ?, ?)";
+    private static final String GET_FEED_SQL = "select e.* " +
+            "from events e " +
+            "where e.user_id = ? and e.id > ? " +
+            "order by e.id asc " +
+            "limit ?";
+    private static final String GET_FAN_OUT_FEED_SQL = "select e.* " +
+            "from feed_items fi join events e on fi.event_id = e.id " +
+            "where fi.owner_id = ? and fi.event_id > ? " +
+            "order by fi.event_id asc " +
+            "limit ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final DbFeedWriter feedWriter;
+    @Value("${filmorate.feed.fan-out:false}")
+    private final boolean fanOut;
 
     private void addFeed(Operation operation, EventType eventType, long userId, long entityId) {
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-            stmt.setLong(1, Instant.now().toEpochMilli());
-            stmt.setString(2, operation.toString());
-            stmt.setString(3, eventType.toString());
-            stmt.setLong(4, userId);
-            stmt.setLong(5, entityId);
-            return stmt;
-        }, keyHolder);
-
-        log.info("User {} has got an event {} {}.{} with object {}.",
-                userId, keyHolder.getKey().longValue(), operation, eventType, entityId);
+        feedWriter.write(feed(Instant.now().toEpochMilli(), operation, eventType, userId, entityId));
+    }
+
+    private Feed feed(long timestamp, Operation operation, EventType eventType, long userId, long entityId) {
+        return Feed.builder()
+                .timestamp(timestamp)
+                .operation(operation)
+                .eventType(eventType)
+                .userId(userId)
+                .entityId(entityId)
+                .build();
     }
 
     @Override
@@ -61,6 +73,14 @@ public class DbFeedStorage implements FeedStorage {
         addFeed(Operation.ADD, EventType.LIKE, userId, entityId);
     }
 
+    @Override
+    public void addLikes(Collection<LikePair> likes) {
+        long timestamp = Instant.now().toEpochMilli();
+        feedWriter.write(likes.stream()
+                .map(like -> feed(timestamp, Operation.ADD, EventType.LIKE, like.getUserId(), like.getFilmId()))
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public void deleteLike(long userId, long entityId) {
         addFeed(Operation.REMOVE, EventType.LIKE, userId, entityId);
@@ -82,12 +102,17 @@ public class DbFeedStorage implements FeedStorage {
     }
 
     @Override
-    public List<Feed> getFeed(long userId) {
-        String sql = "select e.* " +
-                "from events e " +
-                "where e.user_id = ? " +
-                "order by e.id asc";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> mapper(rs), userId);
+    public List<Feed> getFeed(long userId, long afterEventId, int limit) {
+        String sql = fanOut ? GET_FAN_OUT_FEED_SQL : GET_FEED_SQL;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapper(rs), userId, afterEventId, limit);
+    }
+
+    @Override
+    public void forEachFeed(long userId, long afterEventId, int limit, Consumer<Feed> consumer) {
+        String sql = fanOut ? GET_FAN_OUT_FEED_SQL : GET_FEED_SQL;
+        jdbcTemplate.query(SqlParams.streaming(sql, userId, afterEventId, limit), rs -> {
+            consumer.accept(mapper(rs));
+        });
     }
 
     private Feed mapper(ResultSet resultSet) throws SQLException {
@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Feed;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DbFeedWriter {
+    private static final String INSERT_SQL =
+            "insert into events(timestamp, operation, event_type, user_id, entity_id) values(?, ?, ?, ?, ?)";
+    private static final String FAN_OUT_SQL = "insert into feed_items (owner_id, event_id) " +
+            "select e.user_id, e.id from events e where e.id = ? " +
+            "union all " +
+            "select f.user_id, e.id from events e join friends f on f.friend_id = e.user_id where e.id = ?";
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    @Value("${filmorate.feed.fan-out:false}")
+    private final boolean fanOut;
+    @Value("${filmorate.feed.writer.async:false}")
+    private final boolean async;
+    @Value("${filmorate.feed.writer.queue-capacity:65536}")
+    private final int queueCapacity;
+    @Value("${filmorate.feed.writer.batch-size:500}")
+    private final int batchSize;
+    @Value("${filmorate.feed.writer.flush-interval-ms:50}")
+    private final long flushIntervalMs;
+    @Value("${filmorate.feed.writer.offer-timeout-ms:100}")
+    private final long offerTimeoutMs;
+
+    private BlockingQueue<Feed> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private Timer flushTimer;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void start() {
+        flushTimer = Timer.builder("filmorate.feed.writer.flush")
+                .description("Time to write one batch of feed events")
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("filmorate.feed.writer.batch.size")
+                .description("Feed events written per batch")
+                .baseUnit("events")
+                .register(meterRegistry);
+        if (!async) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("filmorate.feed.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Feed events waiting to be written")
+                .register(meterRegistry);
+        running = true;
+        flusher = new Thread(this::flushLoop, "feed-writer");
+        flusher.start();
+        log.info("Asynchronous feed writer started, batch size {}, flush interval {} ms",
+                batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!async) {
+            return;
+        }
+        stopLock.writeLock().lock();
+        try {
+            stopped = true;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        running = false;
+        flusher.join(SHUTDOWN_TIMEOUT_MS);
+        List<Feed> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            flushQueued(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+        log.info("Asynchronous feed writer stopped");
+    }
+
+    public void write(Feed event) {
+        write(List.of(event));
+    }
+
+    public void write(List<Feed> events) {
+        int queued = async ? enqueue(events) : 0;
+        for (int from = queued; from < events.size(); from += batchSize) {
+            flush(events.subList(from, Math.min(from + batchSize, events.size())));
+        }
+    }
+
+    private int enqueue(List<Feed> events) {
+        int queued = 0;
+        stopLock.readLock().lock();
+        try {
+            if (stopped) {
+                return 0;
+            }
+            try {
+                while (queued < events.size()
+                        && queue.offer(events.get(queued), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    queued++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (queued < events.size()) {
+                log.warn("Feed writer queue is full, writing {} events synchronously", events.size() - queued);
+            }
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        return queued;
+    }
+
+    private void flushLoop() {
+        List<Feed> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                Feed first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Feed next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                flushQueued(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushQueued(List<Feed> events) {
+        try {
+            flush(events);
+        } catch (RuntimeException e) {
+            if (events.size() == 1) {
+                log.error("Failed to write feed event {}", events.get(0), e);
+                return;
+            }
+            log.warn("Failed to write {} feed events in one batch, writing them one by one", events.size(), e);
+            for (Feed event : events) {
+                flushQueued(List.of(event));
+            }
+        }
+    }
+
+    private void flush(List<Feed> events) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> insert(events));
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(events.size());
+        log.debug("Written {} feed events", events.size());
+    }
+
+    private void insert(List<Feed> events) {
+        List<Long> eventIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (Feed event : events) {
+                    stmt.setLong(1, event.getTimestamp());
+                    stmt.setString(2, event.getOperation().toString());
+                    stmt.setString(3, event.getEventType().toString());
+                    stmt.setLong(4, event.getUserId());
+                    stmt.setLong(5, event.getEntityId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                List<Long> keys = new ArrayList<>(events.size());
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        });
+        if (fanOut && eventIds != null && !eventIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAN_OUT_SQL, eventIds.stream()
+                    .map(eventId -> new Object[]{eventId, eventId})
+                    .collect(Collectors.toList()));
+        }
+    }
+}
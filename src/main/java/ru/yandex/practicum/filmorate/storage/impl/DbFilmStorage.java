@@ -8,14 +8,24 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
+import java.sql.Array;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -24,15 +34,107 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class DbFilmStorage implements FilmStorage {
+    private static final String FILM_COLUMNS = "f.id, f.name, f.description, f.release_date, f.duration, f.rating";
+    private static final String INSERT_SQL =
+            "insert into films (name, description, release_date, duration, rating) values (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "update films set name = ?, description = ?, release_date = ?, duration = ?, rating = ? where id = ?";
+    private static final String DELETE_SQL = "delete from films where id = ?";
+    private static final String DELETE_GENRES_SQL = "delete from film_genre where film_id = ?";
+    private static final String DELETE_DIRECTORS_SQL = "delete from film_director where film_id = ?";
+    private static final String INSERT_GENRE_SQL = "insert into film_genre (film_id, genre_id) values (?, ?)";
+    private static final String INSERT_DIRECTOR_SQL = "insert into film_director (film_id, director_id) values (?, ?)";
+    private static final String GET_BY_ID_SQL = "select " + FILM_COLUMNS + " from films f where f.id = ?";
+    private static final String GET_WITH_LINKS_BY_ID_SQL = "select " + FILM_COLUMNS + ", " +
+            "array(select fg.genre_id from film_genre fg where fg.film_id = f.id order by fg.genre_id) genre_ids, " +
+            "array(select fd.director_id from film_director fd where fd.film_id = f.id order by fd.director_id) " +
+            "director_ids " +
+            "from films f where f.id = ?";
+    private static final String GET_ALL_SQL = "select " + FILM_COLUMNS + " from films f";
+    private static final String GET_BY_IDS_SQL = "select " + FILM_COLUMNS + " from films f where f.id in (%s)";
+    private static final String GET_POPULAR_SQL = "select " + FILM_COLUMNS + " " +
+            "from film_popularity_rollup r join films f on f.id = r.film_id " +
+            "where r.genre_id = ? and r.release_year = ? " +
+            "order by r.likes_count desc, r.film_id " +
+            "limit ?";
+    private static final String GET_PAGE_SQL = "select " + FILM_COLUMNS + " from films f " +
+            "where f.id > ? " +
+            "order by f.id " +
+            "limit ?";
+    private static final String GET_POPULAR_PAGE_SQL = "select " + FILM_COLUMNS + " " +
+            "from film_popularity_rollup r join films f on f.id = r.film_id " +
+            "where r.genre_id = ? and r.release_year = ? " +
+            "and (r.likes_count < ? or (r.likes_count = ? and r.film_id > ?)) " +
+            "order by r.likes_count desc, r.film_id " +
+            "limit ?";
+    private static final int ANY_GENRE = 0;
+    private static final int ANY_YEAR = 0;
+    private static final String ROLLUP_COLUMNS = "genre_id, release_year, likes_count, film_id";
+    private static final String DELETE_ROLLUP_SQL = "delete from film_popularity_rollup where film_id = ?";
+    private static final String INSERT_ROLLUP_SQL = "insert into film_popularity_rollup (" + ROLLUP_COLUMNS + ") " +
+            "select ?, ?, likes_count, id from films where id = ?";
+    private static final String EXPECTED_ROLLUP_SQL =
+            "select g.genre_id, y.release_year, f.likes_count, f.id film_id from films f " +
+            "join (select id film_id, " + ANY_GENRE + " genre_id from films " +
+            "union all select film_id, genre_id from film_genre) g on g.film_id = f.id " +
+            "join (select id film_id, " + ANY_YEAR + " release_year from films " +
+            "union all select id, year(release_date) from films where release_date is not null) y on y.film_id = f.id";
+    private static final String FIX_ROLLUP_LIKES_SQL = "update film_popularity_rollup r " +
+            "set likes_count = (select f.likes_count from films f where f.id = r.film_id) " +
+            "where likes_count <> (select f.likes_count from films f where f.id = r.film_id)";
+    private static final String DELETE_STALE_ROLLUP_SQL = "delete from film_popularity_rollup r " +
+            "where (r.genre_id <> " + ANY_GENRE + " and not exists (select 1 from film_genre fg " +
+            "where fg.film_id = r.film_id and fg.genre_id = r.genre_id)) " +
+            "or (r.release_year <> " + ANY_YEAR + " and not exists (select 1 from films f " +
+            "where f.id = r.film_id and year(f.release_date) = r.release_year))";
+    private static final String INSERT_MISSING_ROLLUP_SQL = "insert into film_popularity_rollup (" + ROLLUP_COLUMNS +
+            ") select e.genre_id, e.release_year, e.likes_count, e.film_id from (" + EXPECTED_ROLLUP_SQL + ") e " +
+            "where not exists (select 1 from film_popularity_rollup r " +
+            "where r.genre_id = e.genre_id and r.release_year = e.release_year and r.film_id = e.film_id)";
+    private static final String GET_LIKES_COUNT_SQL = "select likes_count from films where id = ?";
+    private static final String GET_COMMON_SQL = "select f.*, count(1) cnt " +
+            "from films f join film_like fl on f.id = fl.film_id " +
+            "where fl.user_id in (?, ?) " +
+            "group by f.id " +
+            "having cnt > 1";
+    private static final String GET_BY_DIRECTOR_SQL = "select " + FILM_COLUMNS + " from films f " +
+            "where f.id in (select film_id from film_director where director_id = ?) ";
+    private static final String GET_BY_DIRECTOR_ORDER_BY_YEAR_SQL = GET_BY_DIRECTOR_SQL + "order by f.release_date";
+    private static final String GET_BY_DIRECTOR_ORDER_BY_LIKES_SQL = GET_BY_DIRECTOR_SQL + "order by f.likes_count";
+    private static final String LIKE_ESCAPE = "\\";
+    private static final String DIRECTOR_NAME_LIKE_SQL = "f.id in (select fd.film_id from film_director fd " +
+            "join directors d on d.id = fd.director_id " +
+            "where lower(d.name) like lower(?) escape '" + LIKE_ESCAPE + "') ";
+    private static final String SEARCH_BY_TITLE_SQL = "select " + FILM_COLUMNS + " from films f " +
+            "where lower(f.name) like lower(?) escape '" + LIKE_ESCAPE + "' " +
+            "order by f.likes_count desc, f.id";
+    private static final String SEARCH_BY_DIRECTOR_SQL = "select " + FILM_COLUMNS + " from films f " +
+            "where " + DIRECTOR_NAME_LIKE_SQL +
+            "order by f.likes_count desc, f.id";
+    private static final String SEARCH_BY_TITLE_AND_DIRECTOR_SQL = "select " + FILM_COLUMNS + " from films f " +
+            "where " + DIRECTOR_NAME_LIKE_SQL + "or lower(f.name) like lower(?) escape '" + LIKE_ESCAPE + "' " +
+            "order by f.likes_count desc, f.id";
+    private static final String GET_RECOMMENDATIONS_SQL = "with overlaps as (" +
+            "select other.user_id, count(1) overlap " +
+            "from film_like target join film_like other " +
+            "on other.film_id = target.film_id and other.user_id <> target.user_id " +
+            "where target.user_id = ? " +
+            "group by other.user_id) " +
+            "select " + FILM_COLUMNS + " from films f " +
+            "where f.id in (select fl.film_id from film_like fl " +
+            "where fl.user_id in (select user_id from overlaps where overlap = (select max(overlap) from overlaps))) " +
+            "and f.id not in (select fl.film_id from film_like fl where fl.user_id = ?) " +
+            "order by f.id";
+    private static final String EXISTS_SQL = "select count(1) from films where id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
+    @Transactional
     public Film add(Film film) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        String sqlQuery = "insert into films (name, description, release_date, duration, rating) values (?, ?, ?, ?, ?)";
-
         jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"id"});
+            PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
             stmt.setString(1, film.getName());
             stmt.setString(2, film.getDescription());
             stmt.setDate(3, java.sql.Date.valueOf(film.getReleaseDate()));
@@ -51,6 +153,7 @@ public class DbFilmStorage implements FilmStorage {
             film.setDirectors(film.getDirectors().stream().distinct().collect(Collectors.toList()));
             directorUpdate(film);
         }
+        rollupUpdate(film);
 
         log.info("Film {} added", keyHolder.getKey().intValue());
 
@@ -58,9 +161,9 @@ public class DbFilmStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public Film update(Film film) {
-        jdbcTemplate.update("update films set name = ?, description = ?, release_date = ?, duration = ?, rating = ?" +
-                        "where id = ?",
+        jdbcTemplate.update(UPDATE_SQL,
                 film.getName(),
                 film.getDescription(),
                 java.sql.Date.valueOf(film.getReleaseDate()),
@@ -68,158 +171,164 @@ public class DbFilmStorage implements FilmStorage {
                 film.getMpa().getId(),
                 film.getId());
 
-        jdbcTemplate.update("delete from film_genre where film_id = ?", film.getId());
+        jdbcTemplate.update(DELETE_GENRES_SQL, film.getId());
 
         if (film.getGenres() != null) {
             film.setGenres(film.getGenres().stream().distinct().collect(Collectors.toList()));
             genreUpdate(film);
         }
 
-        jdbcTemplate.update("delete from film_director where film_id = ?", film.getId());
+        jdbcTemplate.update(DELETE_DIRECTORS_SQL, film.getId());
 
         if (film.getDirectors() != null) {
             film.setDirectors(film.getDirectors().stream().distinct().collect(Collectors.toList()));
             directorUpdate(film);
         }
+        rollupUpdate(film);
         log.info("Film {} updated", film.getId());
         return getById(film.getId()).orElse(null);
     }
 
     @Override
     public void delete(Long filmId) {
-        jdbcTemplate.update("delete from films where id = ?", filmId);
+        jdbcTemplate.update(DELETE_SQL, filmId);
     }
 
     @Override
     public Optional<Film> getById(Long filmId) {
         try {
-            String sqlQuery = "select id, name, description, release_date, duration, rating from films where id=?";
-            return Optional.ofNullable(jdbcTemplate.queryForObject(sqlQuery, this::mapper, filmId));
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL, this::mapper, filmId));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
     }
 
+    @Override
+    public Optional<Film> getWithLinksById(long filmId) {
+        return jdbcTemplate.query(GET_WITH_LINKS_BY_ID_SQL, (resultSet, rowNum) -> {
+            Film film = mapper(resultSet, rowNum);
+            film.setGenres(idsMapper(resultSet, "genre_ids").stream()
+                    .map(id -> new Genre(id, null))
+                    .collect(Collectors.toList()));
+            film.setDirectors(idsMapper(resultSet, "director_ids").stream()
+                    .map(id -> new Director(id, null))
+                    .collect(Collectors.toList()));
+            return film;
+        }, filmId).stream().findFirst();
+    }
+
     @Override
     public List<Film> getAllFilms() {
-        return jdbcTemplate.query(
-                "select id, name, description, release_date, duration, rating from films",
-                this::mapper
-        );
+        return jdbcTemplate.query(GET_ALL_SQL, this::mapper);
+    }
+
+    @Override
+    public List<Film> getPage(PageCursor after, int limit) {
+        return jdbcTemplate.query(GET_PAGE_SQL, this::mapper, after.getId(), limit);
+    }
+
+    @Override
+    public List<Film> getByIds(Collection<Long> filmIds) {
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (List<Long> chunk : SqlParams.chunks(filmIds)) {
+            jdbcTemplate.query(
+                    String.format(GET_BY_IDS_SQL, SqlParams.placeholders(chunk.size())),
+                    resultSet -> {
+                        Film film = mapper(resultSet, 0);
+                        filmsById.put(film.getId(), film);
+                    },
+                    chunk.toArray());
+        }
+        List<Film> films = new ArrayList<>();
+        for (Long filmId : filmIds) {
+            Film film = filmsById.get(filmId);
+            if (film != null) {
+                films.add(film);
+            }
+        }
+        return films;
     }
 
     @Override
     public List<Film> getPopular(int count, Integer genreId, String year) {
-        return jdbcTemplate.query(
-                "select res.id, res.name, res.description, res.release_date, res.duration, res.cnt, res.rating " +
-                        "from ( " +
-                        "select f.*, l.cnt " +
-                        "from films f " +
-                        "left join (select fl.film_id, count(fl.user_id) cnt from film_like fl group by fl.film_id) l " +
-                        "on f.id = l.film_id " +
-                        "where ? is null " +
-                        "and year(f.release_date) = decode(?, null, year(f.release_date), ?) " +
-                        "union " +
-                        "select f.*, l.cnt " +
-                        "from films f " +
-                        "left join (select fl.film_id, count(fl.user_id) cnt from film_like fl group by fl.film_id) l " +
-                        "on f.id = l.film_id " +
-                        "join (select fg.film_id from film_genre fg where fg.genre_id = nvl(?, fg.genre_id) group by fg.film_id) g " +
-                        "on f.id = g.film_id " +
-                        "where ? is not null " +
-                        "and year(f.release_date) = decode(?, null, year(f.release_date), ?) " +
-                        ") res " +
-                        "order by res.cnt desc " +
-                        "limit ? ", this::mapper,
-                genreId,
-                year,
-                year,
-                genreId,
-                genreId,
-                year,
-                year,
+        return jdbcTemplate.query(GET_POPULAR_SQL, this::mapper,
+                genreId == null ? ANY_GENRE : genreId,
+                rollupYear(year),
                 count);
     }
 
+    @Override
+    public List<Film> getPopularPage(PageCursor after, int limit, Integer genreId, String year) {
+        return jdbcTemplate.query(GET_POPULAR_PAGE_SQL, this::mapper,
+                genreId == null ? ANY_GENRE : genreId,
+                rollupYear(year),
+                after.getSortKey(),
+                after.getSortKey(),
+                after.getId(),
+                limit);
+    }
+
+    @Override
+    public int getLikesCount(long filmId) {
+        Integer likes = jdbcTemplate.queryForObject(GET_LIKES_COUNT_SQL, Integer.class, filmId);
+        return likes == null ? 0 : likes;
+    }
+
+    @Override
+    @Transactional
+    public int reconcilePopularityRollup() {
+        return jdbcTemplate.update(FIX_ROLLUP_LIKES_SQL)
+                + jdbcTemplate.update(DELETE_STALE_ROLLUP_SQL)
+                + jdbcTemplate.update(INSERT_MISSING_ROLLUP_SQL);
+    }
+
     @Override
     public List<Film> getCommonFilms(long userId, long friendId) {
-        return jdbcTemplate.query("select f.*, count(1) cnt " +
-                "from films f join film_like fl on f.id = fl.film_id " +
-                "where fl.user_id in (?, ?) " +
-                "group by f.id " +
-                "having cnt > 1", this::mapper, userId, friendId);
+        return jdbcTemplate.query(GET_COMMON_SQL, this::mapper, userId, friendId);
     }
 
     @Override
     public List<Film> getTopByDirector(int id, String sortBy) {
-        String sqlRequest = "select f.* from films f left join " +
-                "(select fl.film_id, count(fl.user_id) cnt from film_like fl group by fl.film_id) l " +
-                "on f.id = l.film_id " +
-                "where f.id in (select film_id from film_director where director_id = ?)";
         switch (sortBy) {
             case "year":
-                sqlRequest = sqlRequest + "order by f.release_date";
-                break;
+                return jdbcTemplate.query(GET_BY_DIRECTOR_ORDER_BY_YEAR_SQL, this::mapper, id);
             case "likes":
-                sqlRequest = sqlRequest + "order by cnt";
-                break;
+                return jdbcTemplate.query(GET_BY_DIRECTOR_ORDER_BY_LIKES_SQL, this::mapper, id);
             default:
                 throw new ValidationException("No such sort was found");
         }
-
-        return jdbcTemplate.query(sqlRequest, this::mapper, id);
     }
 
     @Override
     public List<Film> searchFilms(String query, String by) {
-        query = "%" + query + "%";
-        String sqlRequest = "select f.* from films f " +
-                "left join (select fl.film_id, count(fl.user_id) cnt from film_like fl group by fl.film_id) l " +
-                "on f.id = l.film_id ";
+        query = "%" + escapeLike(query) + "%";
         switch (by) {
             case "title":
-                sqlRequest = sqlRequest + "where lower(f.name) like lower(?) order by cnt desc";
-                return jdbcTemplate.query(sqlRequest, this::mapper, query);
+                return jdbcTemplate.query(SEARCH_BY_TITLE_SQL, this::mapper, query);
             case "director":
-                sqlRequest = "select f.* from directors d " +
-                        "join film_director fd on d.id = fd.director_id " +
-                        "join films f on fd.film_id = f.id " +
-                        "left join (select fl.film_id, count(fl.user_id) cnt from film_like fl group by fl.film_id) l " +
-                        "on f.id = l.film_id " +
-                        "where lower(d.name) like lower(?) " +
-                        "order by cnt desc";
-                return jdbcTemplate.query(sqlRequest, this::mapper, query);
+                return jdbcTemplate.query(SEARCH_BY_DIRECTOR_SQL, this::mapper, query);
             case "title,director":
             case "director,title":
-                sqlRequest = sqlRequest + "left join (select * from directors d join film_director fd " +
-                        "on d.id=fd.director_id) dn on f.id=dn.film_id " +
-                        "where lower(dn.name) like lower(?) or lower(f.name) like lower(?) " +
-                        "order by cnt desc";
-                return jdbcTemplate.query(sqlRequest, this::mapper, query, query);
+                return jdbcTemplate.query(SEARCH_BY_TITLE_AND_DIRECTOR_SQL, this::mapper, query, query);
         }
         throw new ValidationException("No such sort was found");
     }
 
+    private static String escapeLike(String text) {
+        return text.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
+
     @Override
     public List<Film> getRecommendations(long userId) {
-        return jdbcTemplate.query("select f.* " +
-                        "from " +
-                        "(select fl_other_users.film_id " +
-                        "from film_like fl_other_users " +
-                        "where fl_other_users.user_id <> ? " +
-                        "and fl_other_users.film_id not in (select fl.film_id " +
-                        "FROM film_like fl " +
-                        "where fl.user_id in (?, fl_other_users.user_id) " +
-                        "group by fl.film_id " +
-                        "having count(1) > 1)) recommend_films " +
-                        "join films f on recommend_films.film_id = f.id",
-                this::mapper, userId, userId);
+        return jdbcTemplate.query(GET_RECOMMENDATIONS_SQL, this::mapper, userId, userId);
     }
 
     @Override
     public boolean existsById(long id) {
-            Integer count = jdbcTemplate.queryForObject("select count(1) from films where id=?", Integer.class, id);
-            return count == 1;
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, id);
+        return count == 1;
     }
 
     private Film mapper(ResultSet resultSet, int rowNum) throws SQLException {
@@ -229,11 +338,33 @@ public class DbFilmStorage implements FilmStorage {
                 .description(resultSet.getString("description"))
                 .releaseDate(resultSet.getDate("release_date").toLocalDate())
                 .duration(resultSet.getInt("duration"))
+                .mpa(mpaMapper(resultSet))
                 .build();
     }
 
+    private List<Integer> idsMapper(ResultSet resultSet, String column) throws SQLException {
+        Array array = resultSet.getArray(column);
+        if (array == null) {
+            return List.of();
+        }
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (Object id : (Object[]) array.getArray()) {
+                ids.add(((Number) id).intValue());
+            }
+            return ids;
+        } finally {
+            array.free();
+        }
+    }
+
+    private Mpa mpaMapper(ResultSet resultSet) throws SQLException {
+        int ratingId = resultSet.getInt("rating");
+        return resultSet.wasNull() ? null : new Mpa(ratingId, null);
+    }
+
     private void genreUpdate(Film film) {
-        jdbcTemplate.batchUpdate("insert into film_genre (film_id, genre_id) values (?, ?)",
+        jdbcTemplate.batchUpdate(INSERT_GENRE_SQL,
                 new BatchPreparedStatementSetter() {
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
@@ -250,8 +381,34 @@ public class DbFilmStorage implements FilmStorage {
         );
     }
 
+    private void rollupUpdate(Film film) {
+        jdbcTemplate.update(DELETE_ROLLUP_SQL, film.getId());
+        List<Integer> genreIds = new ArrayList<>();
+        genreIds.add(ANY_GENRE);
+        if (film.getGenres() != null) {
+            film.getGenres().stream().map(Genre::getId).distinct().forEach(genreIds::add);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Integer genreId : genreIds) {
+            rows.add(new Object[]{genreId, ANY_YEAR, film.getId()});
+            rows.add(new Object[]{genreId, film.getReleaseDate().getYear(), film.getId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, rows);
+    }
+
+    private int rollupYear(String year) {
+        if (year == null) {
+            return ANY_YEAR;
+        }
+        try {
+            return Integer.parseInt(year);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Year must be a number, but was " + year);
+        }
+    }
+
     private void directorUpdate(Film film) {
-        jdbcTemplate.batchUpdate("insert into film_director (film_id, director_id) values (?, ?)",
+        jdbcTemplate.batchUpdate(INSERT_DIRECTOR_SQL,
                 new BatchPreparedStatementSetter() {
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
@@ -5,25 +5,39 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.storage.FriendStorage;
 
+import java.util.function.BiConsumer;
+
 @Repository
 @RequiredArgsConstructor
 public class DbFriendStorage implements FriendStorage {
+    private static final String INSERT_SQL = "insert into friends (user_id, friend_id) " +
+            "select u.id, f.id from users u, users f where u.id = ? and f.id = ? " +
+            "and not exists (select 1 from friends fr where fr.user_id = u.id and fr.friend_id = f.id)";
+    private static final String DELETE_SQL = "delete from friends where user_id = ? and friend_id = ?";
+    private static final String ACCEPT_SQL = "update friends set status = true where user_id = ? and friend_id = ?";
+    private static final String GET_ALL_SQL = "select user_id, friend_id from friends";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
-    public void addFriend(long userId, long friendId) {
-        jdbcTemplate.update(
-                "insert into friends (user_id, friend_id) values (?, ?)", userId, friendId);
+    public boolean addFriend(long userId, long friendId) {
+        return jdbcTemplate.update(INSERT_SQL, userId, friendId) > 0;
+    }
+
+    @Override
+    public boolean deleteFriend(long userId, long friendId) {
+        return jdbcTemplate.update(DELETE_SQL, userId, friendId) > 0;
     }
 
     @Override
-    public void deleteFriend(long userId, long friendId) {
-        jdbcTemplate.update(
-                "delete from friends where user_id = ? and friend_id = ?", userId, friendId);
+    public boolean acceptFriendRequest(long userId, long friendId) {
+        return jdbcTemplate.update(ACCEPT_SQL, userId, friendId) > 0;
     }
 
     @Override
-    public void acceptFriendRequest(long userId, long friendId) {
-        jdbcTemplate.update("update friends set status = true where user_id = ? and friend_id = ?", userId, friendId);
+    public void forEachFriendship(BiConsumer<Long, Long> userFriendConsumer) {
+        jdbcTemplate.query(SqlParams.streaming(GET_ALL_SQL), resultSet -> {
+            userFriendConsumer.accept(resultSet.getLong("user_id"), resultSet.getLong("friend_id"));
+        });
     }
 }
\ No newline at end of file
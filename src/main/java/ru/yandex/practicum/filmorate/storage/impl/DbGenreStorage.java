@@ -9,38 +9,50 @@ import ru.yandex.practicum.filmorate.storage.GenreStorage;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 @RequiredArgsConstructor
 public class DbGenreStorage implements GenreStorage {
+    private static final String GET_ALL_SQL = "select * from genres";
+    private static final String GET_BY_ID_SQL = "select * from genres where id = ?";
+    private static final String GET_IDS_BY_FILM_IDS_SQL =
+            "select film_id, genre_id from film_genre where film_id in (%s) order by genre_id";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public List<Genre> getAll() {
-        return jdbcTemplate.query(
-                "select * from genres",
-                this::mapper);
+        return jdbcTemplate.query(GET_ALL_SQL, this::mapper);
     }
 
     @Override
     public Optional<Genre> getById(int id) {
         try {
-            return Optional.ofNullable(jdbcTemplate.queryForObject(
-                    "select * from genres where id = ?",
-                    this::mapper, id));
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL, this::mapper, id));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
     }
 
     @Override
-    public List<Genre> getByFilmId(long filmId) {
-        return jdbcTemplate.query(
-                "select * from genres where id in (select genre_id from film_genre where film_id = ?)",
-                this::mapper,
-                filmId);
+    public Map<Long, List<Integer>> getIdsByFilmIds(Collection<Long> filmIds) {
+        Map<Long, List<Integer>> genreIds = new HashMap<>();
+        for (List<Long> chunk : SqlParams.chunks(filmIds)) {
+            jdbcTemplate.query(
+                    String.format(GET_IDS_BY_FILM_IDS_SQL, SqlParams.placeholders(chunk.size())),
+                    resultSet -> {
+                        genreIds.computeIfAbsent(resultSet.getLong("film_id"), id -> new ArrayList<>())
+                                .add(resultSet.getInt("genre_id"));
+                    },
+                    chunk.toArray());
+        }
+        return genreIds;
     }
 
     private Genre mapper(ResultSet resultSet, int rowNum) throws SQLException {
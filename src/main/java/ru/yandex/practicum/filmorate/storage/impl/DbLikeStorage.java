@@ -4,42 +4,212 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
 import ru.yandex.practicum.filmorate.storage.LikeStorage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 @Repository
 @Slf4j
 @RequiredArgsConstructor
 public class DbLikeStorage implements LikeStorage {
+    private static final String INSERT_SQL = "insert into film_like(user_id, film_id) " +
+            "select u.id, f.id from users u, films f where u.id = ? and f.id = ? " +
+            "and not exists (select 1 from film_like fl where fl.user_id = u.id and fl.film_id = f.id)";
+    private static final String EXISTING_IDS_SQL = "select 'film' kind, id from films where id in (%s) " +
+            "union all " +
+            "select 'user' kind, id from users where id in (%s)";
+    private static final List<Long> NO_IDS = List.of(0L);
+    private static final String DELETE_SQL = "delete film_like where user_id = ? and film_id = ?";
+    private static final String GET_BY_FILM_ID_SQL = "select user_id from film_like where film_id = ?";
+    private static final String GET_BY_USER_ID_SQL = "select film_id from film_like where user_id = ?";
+    private static final String COUNT_BY_FILM_ID_SQL =
+            "select film_id, count(user_id) cnt from film_like group by film_id";
+    private static final String GET_ALL_SQL = "select user_id, film_id from film_like";
+    private static final String RECOUNT_SQL = "update films f " +
+            "set likes_count = (select count(1) from film_like fl where fl.film_id = f.id) " +
+            "where likes_count <> (select count(1) from film_like fl where fl.film_id = f.id)";
+    private static final String LIKE_STATE_SQL = "select " +
+            "exists (select 1 from users where id = ?) and exists (select 1 from films where id = ?) known, " +
+            "exists (select 1 from film_like where user_id = ? and film_id = ?) liked";
+    private static final String UPDATE_COUNT_SQL = "update films set likes_count = likes_count + ? where id = ?";
+    private static final String UPDATE_ROLLUP_COUNT_SQL =
+            "update film_popularity_rollup set likes_count = likes_count + ? where film_id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
-    public void addLike(long userId, long filmId) {
-        String sql = "insert into film_like(user_id, film_id) values(?, ?)";
-        jdbcTemplate.update(sql, userId, filmId);
+    @Transactional
+    public boolean addLike(long userId, long filmId) {
+        int added = jdbcTemplate.update(INSERT_SQL, userId, filmId);
+        updateLikesCount(filmId, added);
+        return added > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteLike(long userId, long filmId) {
+        int deleted = jdbcTemplate.update(DELETE_SQL, userId, filmId);
+        updateLikesCount(filmId, -deleted);
+        return deleted > 0;
+    }
+
+    @Override
+    @Transactional
+    public List<LikeResult> addLikes(Collection<LikePair> likes) {
+        Set<Long> filmIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (LikePair like : likes) {
+            filmIds.add(like.getFilmId());
+            userIds.add(like.getUserId());
+        }
+        Set<Long> existingFilms = new HashSet<>();
+        Set<Long> existingUsers = new HashSet<>();
+        List<List<Long>> filmChunks = SqlParams.chunks(filmIds);
+        List<List<Long>> userChunks = SqlParams.chunks(userIds);
+        for (int i = 0; i < Math.max(filmChunks.size(), userChunks.size()); i++) {
+            List<Long> filmChunk = i < filmChunks.size() ? filmChunks.get(i) : NO_IDS;
+            List<Long> userChunk = i < userChunks.size() ? userChunks.get(i) : NO_IDS;
+            List<Long> params = new ArrayList<>(filmChunk);
+            params.addAll(userChunk);
+            jdbcTemplate.query(String.format(EXISTING_IDS_SQL,
+                            SqlParams.placeholders(filmChunk.size()), SqlParams.placeholders(userChunk.size())),
+                    rs -> {
+                        ("film".equals(rs.getString("kind")) ? existingFilms : existingUsers).add(rs.getLong("id"));
+                    },
+                    params.toArray());
+        }
+
+        List<LikeResult> results = new ArrayList<>(likes.size());
+        List<Object[]> inserts = new ArrayList<>();
+        for (LikePair like : likes) {
+            LikeResult result = new LikeResult(like.getUserId(), like.getFilmId(), LikeStatus.ALREADY_LIKED);
+            if (!existingFilms.contains(like.getFilmId())) {
+                result.setStatus(LikeStatus.FILM_NOT_FOUND);
+            } else if (!existingUsers.contains(like.getUserId())) {
+                result.setStatus(LikeStatus.USER_NOT_FOUND);
+            } else {
+                inserts.add(new Object[]{like.getUserId(), like.getFilmId()});
+            }
+            results.add(result);
+        }
+        if (inserts.isEmpty()) {
+            return results;
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        Map<Long, Integer> deltas = new HashMap<>();
+        int insert = 0;
+        for (LikeResult result : results) {
+            if (result.getStatus() == LikeStatus.ALREADY_LIKED && inserted[insert++] > 0) {
+                result.setStatus(LikeStatus.ADDED);
+                deltas.merge(result.getFilmId(), 1, Integer::sum);
+            }
+        }
+        updateLikesCounts(deltas);
+        return results;
+    }
+
+    @Transactional
+    public void applyLikes(List<LikePair> added, List<LikePair> removed) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        applyBatch(INSERT_SQL, added, 1, deltas);
+        applyBatch(DELETE_SQL, removed, -1, deltas);
+        updateLikesCounts(deltas);
+    }
+
+    public Optional<Boolean> findLike(long userId, long filmId) {
+        return jdbcTemplate.queryForObject(LIKE_STATE_SQL,
+                (rs, rowNum) -> rs.getBoolean("known") ? Optional.of(rs.getBoolean("liked")) : Optional.empty(),
+                userId, filmId, userId, filmId);
     }
 
     @Override
-    public void deleteLike(long userId, long filmId) {
-        String sql = "delete film_like where user_id = ? and film_id = ?";
-        jdbcTemplate.update(sql, userId, filmId);
+    public IdSet getLikesByFilmId(long filmId) {
+        IdSet.Builder userIds = IdSet.builder();
+        jdbcTemplate.query(SqlParams.streaming(GET_BY_FILM_ID_SQL, filmId), rs -> {
+            userIds.add(rs.getLong("user_id"));
+        });
+        return userIds.build();
     }
 
     @Override
-    public Set<Long> getLikesByFilmId(Long filmId) {
-        return new HashSet<>(jdbcTemplate.query(
-                "select user_id from film_like where film_id = ?",
-                (resultSetLike, rowNumLike) -> resultSetLike.getLong("film_like.user_id"),
-                filmId));
+    public IdSet getLikesByUserId(long userId) {
+        IdSet.Builder filmIds = IdSet.builder();
+        jdbcTemplate.query(SqlParams.streaming(GET_BY_USER_ID_SQL, userId), rs -> {
+            filmIds.add(rs.getLong("film_id"));
+        });
+        return filmIds.build();
     }
 
     @Override
-    public Set<Long> getLikesByUserId(Long userId) {
-        return new HashSet<>(jdbcTemplate.query(
-                "select film_id from film_like where user_id = ?",
-                (rs, rowNum) -> rs.getLong("film_like.film_id"),
-                userId));
+    public Map<Long, Integer> getLikesCountByFilmId() {
+        Map<Long, Integer> likes = new HashMap<>();
+        jdbcTemplate.query(COUNT_BY_FILM_ID_SQL,
+                rs -> {
+                    likes.put(rs.getLong("film_id"), rs.getInt("cnt"));
+                });
+        return likes;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Long, Long> userFilmConsumer) {
+        jdbcTemplate.query(GET_ALL_SQL,
+                rs -> {
+                    userFilmConsumer.accept(rs.getLong("user_id"), rs.getLong("film_id"));
+                });
+    }
+
+    @Override
+    public int recountLikes() {
+        return jdbcTemplate.update(RECOUNT_SQL);
+    }
+
+    private void applyBatch(String sql, List<LikePair> likes, int delta, Map<Long, Integer> deltas) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(likes.size());
+        for (LikePair like : likes) {
+            rows.add(new Object[]{like.getUserId(), like.getFilmId()});
+        }
+        int[] changed = jdbcTemplate.batchUpdate(sql, rows);
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i] > 0) {
+                deltas.merge(likes.get(i).getFilmId(), delta, Integer::sum);
+            }
+        }
+    }
+
+    private void updateLikesCounts(Map<Long, Integer> deltas) {
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((filmId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, filmId});
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_COUNT_SQL, updates);
+            jdbcTemplate.batchUpdate(UPDATE_ROLLUP_COUNT_SQL, updates);
+        }
+    }
+
+    private void updateLikesCount(long filmId, int delta) {
+        if (delta != 0) {
+            jdbcTemplate.update(UPDATE_COUNT_SQL, delta, filmId);
+            jdbcTemplate.update(UPDATE_ROLLUP_COUNT_SQL, delta, filmId);
+        }
     }
 }
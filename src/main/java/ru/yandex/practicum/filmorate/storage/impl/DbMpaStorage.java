@@ -13,12 +13,14 @@ import java.util.Optional;
 @Repository
 @RequiredArgsConstructor
 public class DbMpaStorage implements MpaStorage {
+    private static final String GET_ALL_SQL = "select id, name from ratings";
+    private static final String GET_BY_ID_SQL = "select id, name from ratings where id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public List<Mpa> getAll() {
-        return jdbcTemplate.query(
-                "select id, name from ratings",
+        return jdbcTemplate.query(GET_ALL_SQL,
                 (resultSetGenre, rowNumGenre) -> {
                     Mpa mpa = new Mpa();
                     mpa.setId(resultSetGenre.getInt("ratings.id"));
@@ -30,8 +32,7 @@ public class DbMpaStorage implements MpaStorage {
     @Override
     public Optional<Mpa> getById(int id) {
         try {
-            return Optional.ofNullable(jdbcTemplate.queryForObject(
-                    "select id, name from ratings where id = ?",
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL,
                     (resultSetMpa, rowNumMpa) -> {
                         Mpa mpa = new Mpa();
                         mpa.setId(resultSetMpa.getInt("ratings.id"));
@@ -42,20 +43,4 @@ public class DbMpaStorage implements MpaStorage {
             return Optional.empty();
         }
     }
-
-    @Override
-    public Optional<Mpa> getMpaByFilmId(long filmId) {
-        try {
-            return Optional.ofNullable(jdbcTemplate.queryForObject(
-                    "select r.id, r.name from films f left join ratings r on f.rating = r.id where f.id = ?",
-                    (resultSetMpa, rowNumMpa) -> {
-                        Mpa mpa = new Mpa();
-                        mpa.setId(resultSetMpa.getInt("ratings.id"));
-                        mpa.setName(resultSetMpa.getString("ratings.name"));
-                        return mpa;
-                    }, filmId));
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
-    }
 }
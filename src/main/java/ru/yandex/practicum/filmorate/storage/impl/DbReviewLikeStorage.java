@@ -4,40 +4,78 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.storage.ReviewLikeStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 
+import java.util.List;
+
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class DbReviewLikeStorage implements ReviewLikeStorage {
+    private static final String MERGE_SQL = "merge into review_like (review_id, user_id, useful) " +
+            "key (review_id, user_id) " +
+            "select r.id, u.id, cast(? as int) from reviews r, users u where r.id = ? and u.id = ?";
+    private static final int LIKE = 1;
+    private static final int DISLIKE = -1;
+    private static final String DELETE_SQL = "delete from review_like where review_id = ? and user_id = ?";
+    private static final String LOCK_REVIEW_SQL = "select id from reviews where id = ? for update";
+    private static final String GET_VOTE_SQL = "select useful from review_like where review_id = ? and user_id = ?";
+    private static final String UPDATE_USEFUL_SQL = "update reviews set useful = useful + ? where id = ?";
+    private static final String RECOUNT_SQL = "update reviews r " +
+            "set useful = (select nvl(sum(rl.useful), 0) from review_like rl where rl.review_id = r.id) " +
+            "where useful <> (select nvl(sum(rl.useful), 0) from review_like rl where rl.review_id = r.id)";
+
     private final JdbcTemplate jdbcTemplate;
     private final ReviewStorage reviewStorage;
 
     @Override
-    public void addLike(long reviewId, long userId) {
-        jdbcTemplate.update(
-                "insert into review_like (review_id, user_id, useful) values (?, ?, 1)",
-                reviewId,
-                userId
-        );
+    @Transactional
+    public boolean addLike(long reviewId, long userId) {
+        return vote(reviewId, userId, LIKE);
+    }
+
+    @Override
+    @Transactional
+    public boolean addDislike(long reviewId, long userId) {
+        return vote(reviewId, userId, DISLIKE);
     }
 
     @Override
-    public void addDislike(long reviewId, long userId) {
-        jdbcTemplate.update(
-                "insert into review_like (review_id, user_id, useful) values (?, ?, -1)",
-                reviewId,
-                userId
-        );
+    @Transactional
+    public boolean deleteLikeOrDislike(long reviewId, long userId) {
+        int previous = getVote(reviewId, userId);
+        int deleted = jdbcTemplate.update(DELETE_SQL, reviewId, userId);
+        if (deleted > 0) {
+            updateUseful(reviewId, -previous);
+        }
+        return deleted > 0;
     }
 
     @Override
-    public void deleteLikeOrDislike(long reviewId, long userId) {
-        jdbcTemplate.update(
-                "delete from review_like where review_id = ? and user_id = ?",
-                reviewId,
-                userId
-        );
+    public int recountUseful() {
+        return jdbcTemplate.update(RECOUNT_SQL);
+    }
+
+    private boolean vote(long reviewId, long userId, int useful) {
+        int previous = getVote(reviewId, userId);
+        boolean voted = jdbcTemplate.update(MERGE_SQL, useful, reviewId, userId) > 0;
+        if (voted) {
+            updateUseful(reviewId, useful - previous);
+        }
+        return voted;
+    }
+
+    private int getVote(long reviewId, long userId) {
+        jdbcTemplate.queryForList(LOCK_REVIEW_SQL, Long.class, reviewId);
+        List<Integer> votes = jdbcTemplate.queryForList(GET_VOTE_SQL, Integer.class, reviewId, userId);
+        return votes.isEmpty() ? 0 : votes.get(0);
+    }
+
+    private void updateUseful(long reviewId, int delta) {
+        if (delta != 0) {
+            jdbcTemplate.update(UPDATE_USEFUL_SQL, delta, reviewId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 
@@ -16,20 +17,40 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class DbReviewStorage implements ReviewStorage {
+    private static final String INSERT_SQL =
+            "insert into reviews (content, is_positive, user_id, film_id) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update reviews set content = ?, is_positive = ? where id = ?";
+    private static final String DELETE_SQL = "delete from reviews where id = ?";
+    private static final String REVIEW_COLUMNS = "id, content, is_positive, user_id, film_id, useful";
+    private static final String GET_BY_ID_SQL = "select " + REVIEW_COLUMNS + " from reviews where id = ?";
+    private static final String GET_ALL_SQL = "select " + REVIEW_COLUMNS + " from reviews order by useful desc, id";
+    private static final String GET_BY_FILM_ID_SQL = "select " + REVIEW_COLUMNS + " from reviews " +
+            "where film_id = ? " +
+            "order by useful desc, id " +
+            "limit ?";
+    private static final String GET_PAGE_SQL = "select " + REVIEW_COLUMNS + " from reviews " +
+            "where useful < ? or (useful = ? and id > ?) " +
+            "order by useful desc, id " +
+            "limit ?";
+    private static final String GET_FILM_PAGE_SQL = "select " + REVIEW_COLUMNS + " from reviews " +
+            "where film_id = ? and (useful < ? or (useful = ? and id > ?)) " +
+            "order by useful desc, id " +
+            "limit ?";
+    private static final String EXISTS_SQL = "select count(1) from reviews where id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Review addReview(Review review) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        String sqlQuery = "insert into reviews (content, is_positive, user_id, film_id) values (?, ?, ?, ?)";
-
         jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"id"});
+            PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
             stmt.setString(1, review.getContent());
             stmt.setBoolean(2, review.getPositive());
             stmt.setLong(3, review.getUserId());
@@ -47,7 +68,7 @@ public class DbReviewStorage implements ReviewStorage {
     @Override
     public Review updateReview(Review review) {
         getReviewById(review.getReviewId());
-        jdbcTemplate.update("update reviews set content = ?, is_positive = ? where id = ?",
+        jdbcTemplate.update(UPDATE_SQL,
                 review.getContent(),
                 review.getPositive(),
                 review.getReviewId());
@@ -59,16 +80,13 @@ public class DbReviewStorage implements ReviewStorage {
 
     @Override
     public void deleteReview(long id) {
-        jdbcTemplate.update("delete from reviews where id = ?", id);
+        jdbcTemplate.update(DELETE_SQL, id);
     }
 
     @Override
     public Optional<Review> getReviewById(long id) {
         try {
-            String sqlQuery = "select r.*, u.cnt from reviews r left join (select review_id, sum(useful) cnt " +
-                    "from review_like group by review_id) u on r.id = u.review_id " +
-                    "where r.id = ?";
-            return Optional.ofNullable(jdbcTemplate.queryForObject(sqlQuery, this::mapper, id));
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL, this::mapper, id));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -76,33 +94,35 @@ public class DbReviewStorage implements ReviewStorage {
 
     @Override
     public List<Review> getAllReviews() {
-        return jdbcTemplate.query(
-                "select r.*, u.cnt from reviews r left join (select review_id, nvl(sum(useful),0) cnt " +
-                        "from review_like group by review_id) u on r.id = u.review_id order by nvl(u.cnt,0) desc",
-                this::mapper
-        );
+        return jdbcTemplate.query(GET_ALL_SQL, this::mapper);
+    }
+
+    @Override
+    public void forEachReview(Consumer<Review> consumer) {
+        jdbcTemplate.query(SqlParams.streaming(GET_ALL_SQL), resultSet -> {
+            consumer.accept(mapper(resultSet, 0));
+        });
     }
 
     @Override
     public List<Review> getReviewsByFilmId(long filmId, int count) {
-        return jdbcTemplate.query(
-                "select r.*, u.cnt from reviews r left join (select review_id, nvl(sum(useful),0) cnt " +
-                        "from review_like group by review_id) u " +
-                        "on r.id = u.review_id " +
-                        "where r.film_id = ? " +
-                        "order by nvl(u.cnt,0) desc " +
-                        "limit ?",
-                this::mapper,
-                filmId,
-                count
-        );
+        return jdbcTemplate.query(GET_BY_FILM_ID_SQL, this::mapper, filmId, count);
+    }
+
+    @Override
+    public List<Review> getPage(PageCursor after, int limit, Long filmId) {
+        if (filmId == null) {
+            return jdbcTemplate.query(GET_PAGE_SQL, this::mapper,
+                    after.getSortKey(), after.getSortKey(), after.getId(), limit);
+        }
+        return jdbcTemplate.query(GET_FILM_PAGE_SQL, this::mapper,
+                filmId, after.getSortKey(), after.getSortKey(), after.getId(), limit);
     }
 
     @Override
     public boolean existsById(long id) {
-            Integer count = jdbcTemplate.queryForObject(
-                    "select count(1) from reviews where id=?", Integer.class, id);
-            return count == 1;
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, id);
+        return count == 1;
     }
 
     private Review mapper(ResultSet resultSet, int rowNum) throws SQLException {
@@ -112,7 +132,7 @@ public class DbReviewStorage implements ReviewStorage {
                 .positive(resultSet.getBoolean("is_positive"))
                 .userId(resultSet.getLong("user_id"))
                 .filmId(resultSet.getLong("film_id"))
-                .useful(resultSet.getInt("u.cnt"))
+                .useful(resultSet.getInt("useful"))
                 .build();
     }
 }
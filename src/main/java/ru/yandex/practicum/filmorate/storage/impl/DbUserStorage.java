@@ -7,28 +7,68 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.PageCursor;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class DbUserStorage implements UserStorage {
+    private static final String INSERT_SQL = "insert into users (name, login, email, birthday) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "update users set name = ?, login = ?, email = ?, birthday = ? where id = ?";
+    private static final String UNLIKE_FILMS_SQL = "update films set likes_count = likes_count - 1 " +
+            "where id in (select film_id from film_like where user_id = ?)";
+    private static final String UNLIKE_ROLLUP_SQL = "update film_popularity_rollup set likes_count = likes_count - 1 " +
+            "where film_id in (select film_id from film_like where user_id = ?)";
+    private static final String UNVOTE_REVIEWS_SQL = "update reviews r " +
+            "set useful = useful - (select rl.useful from review_like rl where rl.review_id = r.id and rl.user_id = ?) " +
+            "where id in (select review_id from review_like where user_id = ?)";
+    private static final String DELETE_SQL = "delete from users where id = ?";
+    private static final String GET_BY_ID_SQL = "select id, name, login, email, birthday from users where id = ?";
+    private static final String GET_ALL_SQL = "select id, name, login, email, birthday from users";
+    private static final String GET_BY_IDS_SQL = "select id, name, login, email, birthday from users where id in (%s)";
+    private static final String GET_PAGE_SQL = "select id, name, login, email, birthday from users " +
+            "where id > ? " +
+            "order by id " +
+            "limit ?";
+    private static final String GET_COMMON_FRIENDS_SQL = "select u.* " +
+            "from friends fl1 join friends fl2 on fl1.friend_id = fl2.friend_id " +
+            "join users u on fl2.friend_id = u.id " +
+            "where fl1.user_id = ? and fl2.user_id = ?";
+    private static final String GET_FRIENDS_SQL = "select u.* " +
+            "from friends fl join users u on fl.friend_id = u.id " +
+            "where fl.user_id = ?";
+    private static final String GET_FRIEND_SUGGESTIONS_SQL = "select u.id, u.name, u.login, u.email, u.birthday " +
+            "from friends fl1 join friends fl2 on fl1.friend_id = fl2.user_id " +
+            "join users u on fl2.friend_id = u.id " +
+            "where fl1.user_id = ? and u.id <> fl1.user_id " +
+            "and not exists (select 1 from friends fl3 where fl3.user_id = fl1.user_id and fl3.friend_id = u.id) " +
+            "group by u.id, u.name, u.login, u.email, u.birthday " +
+            "order by count(*) desc, u.id " +
+            "limit ?";
+    private static final String EXISTS_SQL = "select count(1) from users where id = ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public User add(User user) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        String sqlQuery = "insert into users (name, login, email, birthday) values (?, ?, ?, ?)";
-
         jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"id"});
+            PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
             stmt.setString(1, user.getName());
             stmt.setString(2, user.getLogin());
             stmt.setString(3, user.getEmail());
@@ -44,8 +84,7 @@ public class DbUserStorage implements UserStorage {
 
     @Override
     public User update(User user) {
-        jdbcTemplate.update("update users set name = ?, login = ?, email = ?, birthday = ?" +
-                        "where id = ?",
+        jdbcTemplate.update(UPDATE_SQL,
                 user.getName(),
                 user.getLogin(),
                 user.getEmail(),
@@ -56,15 +95,18 @@ public class DbUserStorage implements UserStorage {
     }
 
     @Override
+    @Transactional
     public void delete(Long userId) {
-        jdbcTemplate.update("delete from users where id = ?", userId);
+        jdbcTemplate.update(UNLIKE_FILMS_SQL, userId);
+        jdbcTemplate.update(UNLIKE_ROLLUP_SQL, userId);
+        jdbcTemplate.update(UNVOTE_REVIEWS_SQL, userId, userId);
+        jdbcTemplate.update(DELETE_SQL, userId);
     }
 
     @Override
     public Optional<User> getById(Long userId) {
         try {
-            String sqlQuery = "select id, name, login, email, birthday from users where id=?";
-            return Optional.ofNullable(jdbcTemplate.queryForObject(sqlQuery, this::mapper, userId));
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET_BY_ID_SQL, this::mapper, userId));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -72,33 +114,62 @@ public class DbUserStorage implements UserStorage {
 
     @Override
     public List<User> getAll() {
-        return jdbcTemplate.query(
-                "select id, name, login, email, birthday from users",
-                this::mapper
-        );
+        return jdbcTemplate.query(GET_ALL_SQL, this::mapper);
+    }
+
+    @Override
+    public List<User> getByIds(Collection<Long> userIds) {
+        Map<Long, User> usersById = new HashMap<>();
+        for (List<Long> chunk : SqlParams.chunks(userIds)) {
+            jdbcTemplate.query(
+                    String.format(GET_BY_IDS_SQL, SqlParams.placeholders(chunk.size())),
+                    resultSet -> {
+                        User user = mapper(resultSet, 0);
+                        usersById.put(user.getId(), user);
+                    },
+                    chunk.toArray());
+        }
+        List<User> users = new ArrayList<>();
+        for (Long userId : userIds) {
+            User user = usersById.get(userId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        jdbcTemplate.query(SqlParams.streaming(GET_ALL_SQL), resultSet -> {
+            consumer.accept(mapper(resultSet, 0));
+        });
+    }
+
+    @Override
+    public List<User> getPage(PageCursor after, int limit) {
+        return jdbcTemplate.query(GET_PAGE_SQL, this::mapper, after.getId(), limit);
     }
 
     @Override
     public List<User> getCommonFriends(long userId, long otherId) {
-        String sql = "select u.* " +
-                "from friends fl1 join friends fl2 on fl1.friend_id = fl2.friend_id " +
-                "join users u on fl2.friend_id = u.id " +
-                "where fl1.user_id = ? and fl2.user_id = ?";
-        return jdbcTemplate.query(sql, this::mapper, userId, otherId);
+        return jdbcTemplate.query(GET_COMMON_FRIENDS_SQL, this::mapper, userId, otherId);
     }
 
     @Override
     public List<User> getFriendsByUserId(long userId) {
-        String sql = "select u.* " +
-                "from friends fl join users u on fl.friend_id = u.id " +
-                "where fl.user_id = ?";
-        return jdbcTemplate.query(sql, this::mapper, userId);
+        return jdbcTemplate.query(GET_FRIENDS_SQL, this::mapper, userId);
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(long userId, int count) {
+        return jdbcTemplate.query(GET_FRIEND_SUGGESTIONS_SQL, this::mapper, userId, count);
     }
 
     @Override
     public boolean existsById(long id) {
-            Integer count = jdbcTemplate.queryForObject("select count(1) from users where id=?", Integer.class, id);
-            return count == 1;
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, id);
+        return count == 1;
     }
 
     private User mapper(ResultSet resultSet, int rowNum) throws SQLException {
@@ -0,0 +1,242 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+@Slf4j
+@Repository
+@Primary
+@ConditionalOnProperty(value = "filmorate.likes.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class WriteBehindLikeStorage implements LikeStorage {
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final DbLikeStorage dbLikeStorage;
+    private final MeterRegistry meterRegistry;
+    @Value("${filmorate.likes.write-behind.stripes:16}")
+    private final int stripeCount;
+    @Value("${filmorate.likes.write-behind.flush-interval-ms:200}")
+    private final long flushIntervalMs;
+
+    private final Lock flushLock = new ReentrantLock();
+    private Stripe[] stripes;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        Gauge.builder("filmorate.likes.write-behind.pending", this, WriteBehindLikeStorage::pendingCount)
+                .description("Like changes waiting to be written")
+                .register(meterRegistry);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "like-writer"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Write-behind like storage started, {} stripes, flush interval {} ms", stripeCount, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        flush();
+        log.info("Write-behind like storage stopped");
+    }
+
+    @Override
+    public boolean addLike(long userId, long filmId) {
+        return change(new LikePair(userId, filmId), true);
+    }
+
+    @Override
+    public boolean deleteLike(long userId, long filmId) {
+        return change(new LikePair(userId, filmId), false);
+    }
+
+    @Override
+    public List<LikeResult> addLikes(Collection<LikePair> likes) {
+        flush();
+        return dbLikeStorage.addLikes(likes);
+    }
+
+    @Override
+    public IdSet getLikesByFilmId(long filmId) {
+        List<Map.Entry<LikePair, PendingLike>> pending = pending(like -> like.getFilmId() == filmId);
+        return merge(dbLikeStorage.getLikesByFilmId(filmId), pending, LikePair::getUserId);
+    }
+
+    @Override
+    public IdSet getLikesByUserId(long userId) {
+        List<Map.Entry<LikePair, PendingLike>> pending = pending(like -> like.getUserId() == userId);
+        return merge(dbLikeStorage.getLikesByUserId(userId), pending, LikePair::getFilmId);
+    }
+
+    @Override
+    public Map<Long, Integer> getLikesCountByFilmId() {
+        flush();
+        return dbLikeStorage.getLikesCountByFilmId();
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Long, Long> userFilmConsumer) {
+        flush();
+        dbLikeStorage.forEachLike(userFilmConsumer);
+    }
+
+    @Override
+    public int recountLikes() {
+        flush();
+        return dbLikeStorage.recountLikes();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    if (stripe.pending.isEmpty()) {
+                        continue;
+                    }
+                    List<LikePair> added = new ArrayList<>();
+                    List<LikePair> removed = new ArrayList<>();
+                    stripe.pending.forEach((like, pending) -> (pending.liked ? added : removed).add(like));
+                    dbLikeStorage.applyLikes(added, removed);
+                    stripe.pending.clear();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean change(LikePair like, boolean liked) {
+        Stripe stripe = stripes[Math.floorMod(like.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            PendingLike pending = stripe.pending.get(like);
+            if (pending == null) {
+                Optional<Boolean> stored = dbLikeStorage.findLike(like.getUserId(), like.getFilmId());
+                if (stored.isEmpty()) {
+                    return false;
+                }
+                pending = new PendingLike(stored.get(), stored.get());
+            }
+            if (pending.liked == liked) {
+                return false;
+            }
+            if (pending.persisted == liked) {
+                stripe.pending.remove(like);
+            } else {
+                stripe.pending.put(like, new PendingLike(pending.persisted, liked));
+            }
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private List<Map.Entry<LikePair, PendingLike>> pending(Predicate<LikePair> filter) {
+        List<Map.Entry<LikePair, PendingLike>> entries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.pending.forEach((like, pending) -> {
+                    if (filter.test(like)) {
+                        entries.add(Map.entry(like, pending));
+                    }
+                });
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return entries;
+    }
+
+    private static IdSet merge(IdSet stored, List<Map.Entry<LikePair, PendingLike>> pending,
+                               ToLongFunction<LikePair> idOf) {
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        IdSet.Builder merged = IdSet.builder(stored.size() + pending.size());
+        Set<Long> removed = new HashSet<>();
+        for (Map.Entry<LikePair, PendingLike> entry : pending) {
+            if (entry.getValue().liked) {
+                merged.add(idOf.applyAsLong(entry.getKey()));
+            } else {
+                removed.add(idOf.applyAsLong(entry.getKey()));
+            }
+        }
+        stored.forEach(id -> {
+            if (!removed.contains(id)) {
+                merged.add(id);
+            }
+        });
+        return merged.build();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush pending likes", e);
+        }
+    }
+
+    private int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                count += stripe.pending.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    private static class Stripe {
+        private final Map<LikePair, PendingLike> pending = new HashMap<>();
+        private final Lock lock = new ReentrantLock();
+    }
+
+    @AllArgsConstructor
+    private static class PendingLike {
+        private final boolean persisted;
+        private final boolean liked;
+    }
+}
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS film_popularity_rollup (
+    genre_id int NOT NULL,
+    release_year int NOT NULL,
+    likes_count int NOT NULL,
+    film_id int NOT NULL,
+    PRIMARY KEY (genre_id, release_year, film_id)
+);
+
+ALTER TABLE film_popularity_rollup ADD CONSTRAINT IF NOT EXISTS fk_fpr_film_id FOREIGN KEY(film_id) REFERENCES films(id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_popularity_rollup ON film_popularity_rollup (genre_id, release_year, likes_count DESC, film_id);
+CREATE INDEX IF NOT EXISTS idx_popularity_rollup_film_id ON film_popularity_rollup (film_id);
+
+INSERT INTO film_popularity_rollup (genre_id, release_year, likes_count, film_id)
+SELECT g.genre_id, y.release_year, f.likes_count, f.id
+FROM films f
+JOIN (SELECT id film_id, 0 genre_id FROM films UNION ALL SELECT film_id, genre_id FROM film_genre) g ON g.film_id = f.id
+JOIN (SELECT id film_id, 0 release_year FROM films
+      UNION ALL SELECT id, year(release_date) FROM films WHERE release_date IS NOT NULL) y ON y.film_id = f.id
+WHERE NOT EXISTS (SELECT 1 FROM film_popularity_rollup);
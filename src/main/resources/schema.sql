@@ -5,7 +5,8 @@ CREATE TABLE films (
     release_date date,
     duration int,
     rating int,
-    director int
+    director int,
+    likes_count int NOT NULL DEFAULT 0
 );
 
 CREATE TABLE users (
@@ -61,12 +62,19 @@ CREATE TABLE events (
     entity_id integer NOT NULL
 );
 
+CREATE TABLE feed_items (
+    owner_id int NOT NULL,
+    event_id int NOT NULL,
+    PRIMARY KEY (owner_id, event_id)
+);
+
 CREATE TABLE reviews (
     id int PRIMARY KEY AUTO_INCREMENT NOT NULL,
     content varchar(500) NOT NULL,
     is_positive boolean NOT NULL,
     user_id int NOT NULL,
-    film_id int NOT NULL
+    film_id int NOT NULL,
+    useful int NOT NULL DEFAULT 0
 );
 
 CREATE TABLE review_like (
@@ -109,3 +117,11 @@ ALTER TABLE review_like ADD CONSTRAINT fk_rl_rev_id FOREIGN KEY(review_id) REFER
 ALTER TABLE review_like ADD CONSTRAINT fk_rl_user_id FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE;
 
 ALTER TABLE events ADD CONSTRAINT fk_ev_user_id FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+ALTER TABLE feed_items ADD CONSTRAINT fk_fi_owner_id FOREIGN KEY(owner_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE feed_items ADD CONSTRAINT fk_fi_event_id FOREIGN KEY(event_id) REFERENCES events(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_films_likes_count ON films (likes_count DESC, id);
+CREATE INDEX idx_events_user_id ON events (user_id, id);
+CREATE INDEX idx_reviews_film_useful ON reviews (film_id, useful DESC, id);
+CREATE INDEX idx_reviews_useful ON reviews (useful DESC, id);
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConditionalGetTest {
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final DirectorService directorService;
+
+    @Test
+    public void filmIsRevalidatedAfterFilmUpdate() throws Exception {
+        Film film = createFilm("Conditional film", null);
+        String url = "/films/" + film.getId();
+        String etag = assertNotModified(url);
+
+        film.setName("Conditional film updated");
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(film)))
+                .andExpect(status().isOk());
+
+        String updated = assertModified(url, etag);
+        assertTrue(mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsString().isEmpty());
+        mockMvc.perform(get(url))
+                .andExpect(content().string(containsString("Conditional film updated")));
+    }
+
+    @Test
+    public void filmAndDirectorsAreRevalidatedAfterDirectorUpdate() throws Exception {
+        Director director = directorService.addDirector(new Director(0, "Conditional director"));
+        Film film = createFilm("Directed film", director);
+        String filmUrl = "/films/" + film.getId();
+        String filmEtag = assertNotModified(filmUrl);
+        String directorsEtag = assertNotModified("/directors");
+
+        mockMvc.perform(put("/directors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Director(director.getId(), "Conditional director renamed"))))
+                .andExpect(status().isOk());
+
+        assertModified(filmUrl, filmEtag);
+        assertModified("/directors", directorsEtag);
+        mockMvc.perform(get(filmUrl))
+                .andExpect(content().string(containsString("Conditional director renamed")));
+    }
+
+    @Test
+    public void popularIsRevalidatedAfterLikeWrites() throws Exception {
+        Film film = createFilm("Liked film", null);
+        long userId = userService.create(User.builder()
+                .login("conditionalUser")
+                .email("conditionalUser@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+        String url = "/films/popular?count=10000";
+        String etag = assertNotModified(url);
+
+        mockMvc.perform(put("/films/" + film.getId() + "/like/" + userId))
+                .andExpect(status().isOk());
+        etag = assertModified(url, etag);
+
+        mockMvc.perform(delete("/films/" + film.getId() + "/like/" + userId))
+                .andExpect(status().isOk());
+        etag = assertModified(url, etag);
+
+        mockMvc.perform(post("/films/likes:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new LikePair(userId, film.getId())))))
+                .andExpect(status().isOk());
+        assertModified(url, etag);
+    }
+
+    private String assertNotModified(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        return etag;
+    }
+
+    private String assertModified(String url, String etag) throws Exception {
+        String updated = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(updated);
+        assertNotEquals(etag, updated);
+        return updated;
+    }
+
+    private Film createFilm(String name, Director director) {
+        return filmService.addFilm(Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2018, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .directors(director == null ? List.of() : List.of(director))
+                .build());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.EventType;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.Operation;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FeedStorage;
+import ru.yandex.practicum.filmorate.storage.impl.DbFeedWriter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "filmorate.feed.writer.async=true",
+        "filmorate.feed.fan-out=true"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DbFeedWriterTest {
+    private static final long MISSING_USER_ID = 999_999;
+    private static final long TIMEOUT_MS = 5_000;
+    private static final int WRITERS = 4;
+    private static final int EVENTS_PER_WRITER = 200;
+
+    private final DbFeedWriter feedWriter;
+    private final FeedStorage feedStorage;
+    private final UserService userService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Test
+    public void failingEventDoesNotDropTheRestOfTheBatch() throws InterruptedException {
+        long authorId = createUser("feedAuthor");
+        long followerId = createUser("feedFollower");
+        userService.addFriend(followerId, authorId);
+
+        feedWriter.write(List.of(event(authorId, 1001), event(MISSING_USER_ID, 1002), event(authorId, 1003)));
+
+        assertEquals(List.of(1001L, 1003L), awaitEntityIds(authorId, 2));
+        assertEquals(List.of(1001L, 1003L), awaitEntityIds(followerId, 2));
+    }
+
+    @Test
+    public void eventsWrittenDuringStopAreNotLost() throws Exception {
+        long authorId = createUser("stoppingFeedAuthor");
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (int round = 0; round < 20; round++) {
+                DbFeedWriter writer = new DbFeedWriter(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(),
+                        false, true, 1, 1, 5, 100);
+                writer.start();
+                long firstEntityId = 100_000L * (round + 1);
+                CountDownLatch started = new CountDownLatch(WRITERS);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < WRITERS; w++) {
+                    long writerEntityId = firstEntityId + (long) w * EVENTS_PER_WRITER;
+                    futures.add(executor.submit(() -> {
+                        started.countDown();
+                        for (int i = 0; i < EVENTS_PER_WRITER; i++) {
+                            writer.write(event(authorId, writerEntityId + i));
+                        }
+                    }));
+                }
+                started.await();
+                writer.stop();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(WRITERS * EVENTS_PER_WRITER, jdbcTemplate.queryForObject(
+                        "select count(1) from events where user_id = ? and entity_id between ? and ?",
+                        Integer.class, authorId, firstEntityId, firstEntityId + WRITERS * EVENTS_PER_WRITER - 1),
+                        "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> awaitEntityIds(long ownerId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        List<Long> entityIds = entityIds(ownerId);
+        while (entityIds.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            entityIds = entityIds(ownerId);
+        }
+        return entityIds;
+    }
+
+    private List<Long> entityIds(long ownerId) {
+        return feedStorage.getFeed(ownerId, 0, 100).stream()
+                .filter(feed -> feed.getEventType() == EventType.LIKE)
+                .map(Feed::getEntityId)
+                .collect(Collectors.toList());
+    }
+
+    private Feed event(long userId, long entityId) {
+        return Feed.builder()
+                .timestamp(System.currentTimeMillis())
+                .operation(Operation.ADD)
+                .eventType(EventType.LIKE)
+                .userId(userId)
+                .entityId(entityId)
+                .build();
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+}
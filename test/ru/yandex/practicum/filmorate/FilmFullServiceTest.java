@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.config.QueryStats;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmFullService;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmFullServiceTest {
+    private final FilmFullService filmFullService;
+    private final FilmStorage filmStorage;
+    private final DirectorStorage directorStorage;
+
+    @Test
+    public void getAllFilmsStatementCountDoesNotDependOnFilmsCount() {
+        Director director = directorStorage.addDirector(new Director(0, "Director"));
+        int existing = filmFullService.getAllFilms().size();
+        Set<Long> filmIds = new HashSet<>(addFilms(2, director));
+        filmFullService.getAllFilms();
+
+        long smallListStatements = countStatements(
+                () -> assertEquals(existing + 2, filmFullService.getAllFilms().size()));
+
+        filmIds.addAll(addFilms(20, director));
+
+        long bigListStatements = countStatements(() -> {
+            List<Film> films = filmFullService.getAllFilms().stream()
+                    .filter(film -> filmIds.contains(film.getId()))
+                    .collect(Collectors.toList());
+            assertEquals(22, films.size());
+            for (Film film : films) {
+                assertEquals(1, film.getGenres().size());
+                assertEquals(1, film.getDirectors().size());
+                assertEquals("PG", film.getMpa().getName());
+            }
+        });
+
+        assertEquals(smallListStatements, bigListStatements);
+    }
+
+    @Test
+    public void getFilmByIdLoadsFilmWithLinksInOneStatement() {
+        Director director = directorStorage.addDirector(new Director(0, "Director"));
+        long filmId = filmStorage.add(Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.parse("2000-01-01"))
+                .duration(100)
+                .mpa(new Mpa(2, "PG"))
+                .genres(List.of(new Genre(2, null), new Genre(1, null)))
+                .directors(List.of(director))
+                .build()).getId();
+        filmFullService.getFilmById(filmId);
+
+        long statements = countStatements(() -> {
+            Film film = filmFullService.getFilmById(filmId);
+            assertEquals(List.of(1, 2), film.getGenres().stream().map(Genre::getId).collect(Collectors.toList()));
+            assertEquals("Комедия", film.getGenres().get(0).getName());
+            assertEquals("Director", film.getDirectors().get(0).getName());
+            assertEquals("PG", film.getMpa().getName());
+        });
+
+        assertEquals(1, statements);
+    }
+
+    private long countStatements(Runnable action) {
+        QueryStats stats = QueryStats.start();
+        try {
+            action.run();
+            return stats.getStatements();
+        } finally {
+            QueryStats.clear();
+        }
+    }
+
+    private List<Long> addFilms(int count, Director director) {
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            filmIds.add(filmStorage.add(Film.builder()
+                    .name("Film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.parse("2000-01-01"))
+                    .duration(100)
+                    .mpa(new Mpa(2, "PG"))
+                    .genres(List.of(new Genre(1, "Комедия")))
+                    .directors(List.of(director))
+                    .build()).getId());
+        }
+        return filmIds;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.cache.FilmJsonCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmJsonCacheTest {
+    private final FilmService filmService;
+    private final FilmJsonCache filmJsonCache;
+    private final ObjectMapper objectMapper;
+
+    @Test
+    public void cachedJsonMatchesJacksonAndFollowsUpdates() throws Exception {
+        Film film = filmService.addFilm(Film.builder()
+                .name("Cached film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2010, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .genres(List.of(new Genre(2, null)))
+                .build());
+
+        Film loaded = filmService.getFilmById(film.getId());
+        filmJsonCache.toJson(loaded, filmJsonCache.stamp());
+        assertArrayEquals(objectMapper.writeValueAsBytes(List.of(loaded)),
+                filmJsonCache.toJsonArray(List.of(loaded), filmJsonCache.stamp()));
+
+        loaded.setName("Renamed film");
+        filmService.update(loaded);
+        Film updated = filmService.getFilmById(film.getId());
+        assertArrayEquals(objectMapper.writeValueAsBytes(updated),
+                filmJsonCache.toJson(updated, filmJsonCache.stamp()));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmSearchIndexTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final DirectorService directorService;
+    private final FilmStorage filmStorage;
+    private final FilmSearchIndex filmSearchIndex;
+    private final PopularityIndex popularityIndex;
+
+    @Test
+    public void searchFromIndexMatchesSqlPath() {
+        popularityIndex.rebuild();
+        filmSearchIndex.rebuild();
+        Director percent = directorService.addDirector(new Director(0, "Quentin 100% Search"));
+        Director underscore = directorService.addDirector(new Director(0, "Search_Director"));
+        Director renamed = directorService.addDirector(new Director(0, "Старый Режиссёр"));
+        String[] titles = {"Search 50% Off", "Search 50 Percent", "search_film", "SearchXfilm",
+                "Back\\Slash Search", "Поиск Фильма", "Another title"};
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            filmIds.add(filmService.addFilm(Film.builder()
+                    .name(titles[i])
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(2005, 1, 1))
+                    .duration(100)
+                    .mpa(new Mpa(1, "G"))
+                    .directors(List.of(i % 3 == 0 ? percent : i % 3 == 1 ? underscore : renamed))
+                    .build()).getId());
+        }
+        for (int i = 0; i < 3; i++) {
+            long userId = userService.create(User.builder()
+                    .login("searcher" + i)
+                    .email("searcher" + i + "@mail.ru")
+                    .birthday(LocalDate.parse("1990-01-01"))
+                    .build()).getId();
+            for (int j = 0; j <= i; j++) {
+                filmService.addLike(userId, filmIds.get(j * 2));
+            }
+        }
+        directorService.updateDirector(new Director(renamed.getId(), "Новый Режиссёр"));
+        filmService.deleteFilmById(filmIds.get(filmIds.size() - 1));
+
+        String[] queries = {"%", "_", "50%", "h_f", "search_", "\\", "k\\s", "50", "xf", "РЕЖ", "старый",
+                "новый", "Another", "q"};
+        for (String query : queries) {
+            for (String by : new String[]{"title", "director", "title,director"}) {
+                assertEquals(ids(filmStorage.searchFilms(query, by)),
+                        ids(filmService.searchFilms(query, by)),
+                        "query " + query + ", by " + by);
+            }
+        }
+        assertEquals(List.of(filmIds.get(0)), ids(filmService.searchFilms("50%", "title")));
+        assertEquals(List.of(filmIds.get(2)), ids(filmService.searchFilms("h_f", "title")));
+        assertFalse(ids(filmStorage.searchFilms("Another", "title")).contains(filmIds.get(filmIds.size() - 1)));
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FriendGraphTest {
+    private static final int THREADS = 4;
+
+    private final UserService userService;
+    private final UserStorage userStorage;
+
+    @Test
+    public void friendQueriesFromGraphMatchSqlPath() {
+        Random random = new Random(7);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            userIds.add(userService.create(User.builder()
+                    .login("graph" + i)
+                    .email("graph" + i + "@mail.ru")
+                    .birthday(LocalDate.parse("1990-01-01"))
+                    .build()).getId());
+        }
+        for (long userId : userIds) {
+            for (int i = 0; i < 4; i++) {
+                long friendId = userIds.get(random.nextInt(userIds.size()));
+                if (friendId != userId) {
+                    userService.addFriend(userId, friendId);
+                }
+            }
+        }
+        userService.addFriend(userIds.get(0), userIds.get(2));
+        userService.deleteFriend(userIds.get(0), userIds.get(2));
+        userService.deleteUserById(userIds.get(1));
+
+        for (long userId : userIds.subList(2, userIds.size())) {
+            assertEquals(ids(userStorage.getFriendsByUserId(userId)).stream().sorted().collect(Collectors.toList()),
+                    ids(userService.getFriends(userId)));
+            assertEquals(ids(userStorage.getFriendSuggestions(userId, 5)),
+                    ids(userService.getFriendSuggestions(userId, 5)));
+            assertEquals(ids(userStorage.getCommonFriends(userId, userIds.get(0))).stream().sorted()
+                            .collect(Collectors.toList()),
+                    ids(userService.findCommonFriends(userId, userIds.get(0))));
+        }
+    }
+
+    @Test
+    public void concurrentAddAndDeleteKeepGraphInStepWithDb() throws Exception {
+        long userId = createUser("racer1");
+        long friendId = createUser("racer2");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int seed = t;
+                tasks.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 100; i++) {
+                        if (random.nextBoolean()) {
+                            userService.addFriend(userId, friendId);
+                        } else {
+                            userService.deleteFriend(userId, friendId);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(ids(userStorage.getFriendsByUserId(userId)), ids(userService.getFriends(userId)));
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class KeysetPaginationTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+
+    @Test
+    public void popularPagesConcatenateToFullRanking() {
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            filmIds.add(filmService.addFilm(Film.builder()
+                    .name("Paged film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .duration(90)
+                    .mpa(new Mpa(1, "G"))
+                    .build()).getId());
+        }
+        for (int i = 0; i < 4; i++) {
+            long userId = userService.create(User.builder()
+                    .login("pager" + i)
+                    .email("pager" + i + "@mail.ru")
+                    .birthday(LocalDate.parse("1990-01-01"))
+                    .build()).getId();
+            for (int j = 0; j <= i * 2; j++) {
+                filmService.addLike(userId, filmIds.get(j));
+            }
+        }
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Film> page = filmService.getPopularPage(cursor, 5, null, "2001");
+            assertTrue(page.getItems().size() <= 5);
+            paged.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(ids(filmStorage.getPopular(100, null, "2001")), paged);
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
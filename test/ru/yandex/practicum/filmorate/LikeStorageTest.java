@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikePair;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.model.LikeStatus;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.impl.DbLikeStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class LikeStorageTest {
+    private static final long MISSING_ID = 999_999;
+    private static final int MAX_LIKES_BATCH = 10_000;
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final DbLikeStorage likeStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void addLikesReturnsStatusPerItemAndUpdatesCounts() {
+        long firstFilmId = createFilm("Batch film 1");
+        long secondFilmId = createFilm("Batch film 2");
+        long firstUserId = createUser("batchUser1");
+        long secondUserId = createUser("batchUser2");
+        likeStorage.addLike(firstUserId, secondFilmId);
+
+        List<LikeResult> results = likeStorage.addLikes(List.of(
+                new LikePair(firstUserId, firstFilmId),
+                new LikePair(firstUserId, firstFilmId),
+                new LikePair(secondUserId, firstFilmId),
+                new LikePair(firstUserId, secondFilmId),
+                new LikePair(MISSING_ID, secondFilmId),
+                new LikePair(firstUserId, MISSING_ID),
+                new LikePair(MISSING_ID, MISSING_ID)));
+
+        assertEquals(List.of(LikeStatus.ADDED, LikeStatus.ALREADY_LIKED, LikeStatus.ADDED,
+                        LikeStatus.ALREADY_LIKED, LikeStatus.USER_NOT_FOUND, LikeStatus.FILM_NOT_FOUND,
+                        LikeStatus.FILM_NOT_FOUND),
+                results.stream().map(LikeResult::getStatus).collect(Collectors.toList()));
+        assertEquals(secondUserId, results.get(2).getUserId());
+        assertEquals(firstFilmId, results.get(2).getFilmId());
+
+        assertEquals(2, likesCount(firstFilmId));
+        assertEquals(1, likesCount(secondFilmId));
+        assertRollupLikes(firstFilmId, 2);
+        assertRollupLikes(secondFilmId, 1);
+        assertEquals(2, likeStorage.getLikesByFilmId(firstFilmId).size());
+    }
+
+    @Test
+    public void addLikesAcceptsAtMostMaxBatch() {
+        long userId = createUser("batchCapUser");
+        List<LikePair> likes = new ArrayList<>();
+        for (int i = 0; i < MAX_LIKES_BATCH; i++) {
+            likes.add(new LikePair(userId, MISSING_ID + i));
+        }
+
+        List<LikeResult> results = filmService.addLikes(likes);
+        assertEquals(MAX_LIKES_BATCH, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == LikeStatus.FILM_NOT_FOUND));
+
+        likes.add(new LikePair(userId, MISSING_ID));
+        assertThrows(ValidationException.class, () -> filmService.addLikes(likes));
+    }
+
+    private int likesCount(long filmId) {
+        return jdbcTemplate.queryForObject("select likes_count from films where id = ?", Integer.class, filmId);
+    }
+
+    private void assertRollupLikes(long filmId, int expected) {
+        List<Integer> rollup = jdbcTemplate.queryForList(
+                "select likes_count from film_popularity_rollup where film_id = ?", Integer.class, filmId);
+        assertFalse(rollup.isEmpty());
+        rollup.forEach(likes -> assertEquals(expected, likes));
+    }
+
+    private long createFilm(String name) {
+        return filmService.addFilm(Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2012, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .genres(List.of(new Genre(1, null), new Genre(2, null)))
+                .build()).getId();
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+}
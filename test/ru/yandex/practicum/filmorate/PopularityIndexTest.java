@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.config.SchemaInitializer;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PopularityIndexTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+    private final PopularityIndex popularityIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaInitializer schemaInitializer;
+
+    @Test
+    public void topFilmsFromIndexMatchSqlPath() {
+        popularityIndex.rebuild();
+        Random random = new Random(42);
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Film film = filmService.addFilm(Film.builder()
+                    .name("Film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(2000 + i % 3, 1, 1))
+                    .duration(100)
+                    .mpa(new Mpa(1, "G"))
+                    .genres(List.of(new Genre(1 + i % 4, null), new Genre(1 + i % 6, null)))
+                    .build());
+            filmIds.add(film.getId());
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            userIds.add(userService.create(User.builder()
+                    .login("user" + i)
+                    .email("user" + i + "@mail.ru")
+                    .birthday(LocalDate.parse("1990-01-01"))
+                    .build()).getId());
+        }
+        for (int i = 0; i < 150; i++) {
+            filmService.addLike(userIds.get(random.nextInt(userIds.size())),
+                    filmIds.get(random.nextInt(filmIds.size())));
+        }
+        for (int i = 0; i < 30; i++) {
+            filmService.deleteLike(userIds.get(random.nextInt(userIds.size())),
+                    filmIds.get(random.nextInt(filmIds.size())));
+        }
+        userService.deleteUserById(userIds.get(0));
+
+        for (Integer genreId : new Integer[]{null, 1, 2, 5}) {
+            for (String year : new String[]{null, "2000", "2002", "1999"}) {
+                for (int count : new int[]{1, 5, 100}) {
+                    assertEquals(ids(filmStorage.getPopular(count, genreId, year)),
+                            ids(filmService.getTopFilms(count, genreId, year)),
+                            "count " + count + ", genre " + genreId + ", year " + year);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void popularityRollupDriftIsRebuilt() {
+        Film film = filmService.addFilm(Film.builder()
+                .name("Rollup film")
+                .description("Description")
+                .releaseDate(LocalDate.of(1999, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .genres(List.of(new Genre(3, null)))
+                .build());
+        assertEquals(0, filmStorage.reconcilePopularityRollup());
+
+        jdbcTemplate.update("update film_popularity_rollup set likes_count = likes_count + 5 where film_id = ?",
+                film.getId());
+        jdbcTemplate.update("delete from film_popularity_rollup where film_id = ? and genre_id = 3", film.getId());
+
+        assertTrue(filmStorage.reconcilePopularityRollup() > 0);
+        assertEquals(0, filmStorage.reconcilePopularityRollup());
+        assertTrue(ids(filmStorage.getPopular(100, 3, "1999")).contains(film.getId()));
+    }
+
+    @Test
+    public void schemaMigrationRestoresMissingRollup() {
+        filmService.addFilm(Film.builder()
+                .name("Migrated film")
+                .description("Description")
+                .releaseDate(LocalDate.of(1998, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .genres(List.of(new Genre(4, null)))
+                .build());
+        jdbcTemplate.execute("drop table film_popularity_rollup");
+
+        schemaInitializer.initializeDatabase();
+
+        assertEquals(0, filmStorage.reconcilePopularityRollup());
+        assertFalse(filmStorage.getPopular(10, 4, "1998").isEmpty());
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.index.RecommendationIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class RecommendationIndexTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+    private final RecommendationIndex recommendationIndex;
+
+    @Test
+    public void recommendationsFromIndexMatchSqlPath() {
+        recommendationIndex.rebuild();
+        Random random = new Random(7);
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            filmIds.add(filmService.addFilm(Film.builder()
+                    .name("Recommended film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .duration(90)
+                    .mpa(new Mpa(1, "G"))
+                    .build()).getId());
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            userIds.add(userService.create(User.builder()
+                    .login("recommended" + i)
+                    .email("recommended" + i + "@mail.ru")
+                    .birthday(LocalDate.parse("1990-01-01"))
+                    .build()).getId());
+        }
+        for (int i = 0; i < 70; i++) {
+            filmService.addLike(userIds.get(random.nextInt(userIds.size() - 1)),
+                    filmIds.get(random.nextInt(filmIds.size())));
+        }
+        for (int i = 0; i < 20; i++) {
+            filmService.deleteLike(userIds.get(random.nextInt(userIds.size() - 1)),
+                    filmIds.get(random.nextInt(filmIds.size())));
+        }
+        userService.deleteUserById(userIds.remove(0));
+        filmService.deleteFilmById(filmIds.remove(0));
+
+        int recommended = 0;
+        for (Long userId : userIds) {
+            recommended += userService.getRecommendations(userId).size();
+            assertEquals(ids(filmStorage.getRecommendations(userId)),
+                    ids(userService.getRecommendations(userId)),
+                    "user " + userId);
+        }
+        assertTrue(recommended > 0);
+        assertTrue(userService.getRecommendations(userIds.get(userIds.size() - 1)).isEmpty());
+    }
+
+    @Test
+    public void concurrentLikeAndUnlikeKeepIndexInStepWithDb() throws Exception {
+        recommendationIndex.rebuild();
+        long sharedFilmId = createFilm("Shared film");
+        long toggledFilmId = createFilm("Toggled film");
+        long targetId = createUser("toggleTarget");
+        long likerId = createUser("toggleLiker");
+        filmService.addLike(targetId, sharedFilmId);
+        filmService.addLike(likerId, sharedFilmId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Callable<Void>> tasks = List.of(
+                        () -> {
+                            start.await();
+                            filmService.addLike(likerId, toggledFilmId);
+                            return null;
+                        },
+                        () -> {
+                            start.await();
+                            filmService.deleteLike(likerId, toggledFilmId);
+                            return null;
+                        });
+                List<Future<Void>> futures = new ArrayList<>();
+                tasks.forEach(task -> futures.add(executor.submit(task)));
+                start.countDown();
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+                assertEquals(ids(filmStorage.getRecommendations(targetId)),
+                        ids(userService.getRecommendations(targetId)),
+                        "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long createFilm(String name) {
+        return filmService.addFilm(Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2001, 1, 1))
+                .duration(90)
+                .mpa(new Mpa(1, "G"))
+                .build()).getId();
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
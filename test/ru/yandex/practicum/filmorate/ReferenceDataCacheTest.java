@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.cache.ResourceVersions;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceDataCacheTest {
+    private final DirectorStorage directorStorage = Mockito.mock(DirectorStorage.class);
+    private final ReferenceDataCache cache = new ReferenceDataCache(Mockito.mock(GenreStorage.class),
+            Mockito.mock(MpaStorage.class), directorStorage, new SimpleMeterRegistry(), new ResourceVersions(), 100);
+
+    @Test
+    public void loadRacingWithUpdateDoesNotPublishStaleDirector() {
+        Mockito.when(directorStorage.getDirectorById(1)).thenAnswer(invocation -> {
+            cache.putDirector(new Director(1, "Renamed"));
+            return Optional.of(new Director(1, "Original"));
+        });
+
+        assertEquals("Original", cache.getDirector(1).orElseThrow().getName());
+        assertEquals("Renamed", cache.getDirector(1).orElseThrow().getName());
+    }
+
+    @Test
+    public void listLoadRacingWithDeleteIsNotPublished() {
+        Mockito.when(directorStorage.getAllDirectors())
+                .thenAnswer(invocation -> {
+                    cache.evictDirector(1);
+                    return List.of(new Director(1, "Deleted"));
+                })
+                .thenReturn(List.of());
+
+        assertEquals(1, cache.getDirectors().size());
+        assertEquals(0, cache.getDirectors().size());
+    }
+}
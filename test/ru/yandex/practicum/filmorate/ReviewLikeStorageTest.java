@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.ReviewService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.ReviewLikeStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReviewLikeStorageTest {
+    private static final int THREADS = 8;
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final ReviewService reviewService;
+    private final ReviewLikeStorage reviewLikeStorage;
+
+    @Test
+    public void concurrentFirstVotesOfOneUserCountOnce() throws Exception {
+        long filmId = filmService.addFilm(Film.builder()
+                .name("Reviewed film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2015, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .build()).getId();
+        long authorId = createUser("reviewAuthor");
+        long voterId = createUser("reviewVoter");
+        long reviewId = reviewService.addReview(Review.builder()
+                .content("Content")
+                .positive(true)
+                .userId(authorId)
+                .filmId(filmId)
+                .build()).getReviewId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> votes = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Boolean> vote = () -> {
+                    start.await();
+                    return reviewLikeStorage.addLike(reviewId, voterId);
+                };
+                votes.add(executor.submit(vote));
+            }
+            start.countDown();
+            for (Future<Boolean> vote : votes) {
+                vote.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, reviewService.getReviewById(reviewId).getUseful());
+        assertEquals(0, reviewLikeStorage.recountUseful());
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.impl.DbLikeStorage;
+import ru.yandex.practicum.filmorate.storage.impl.WriteBehindLikeStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.flush-interval-ms=600000"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class WriteBehindLikeStorageTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final WriteBehindLikeStorage writeBehindLikeStorage;
+    private final DbLikeStorage dbLikeStorage;
+
+    @Test
+    public void pendingLikesAreVisibleAndCoalescedBeforeFlush() {
+        long filmId = filmService.addFilm(Film.builder()
+                .name("Viral film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .duration(90)
+                .mpa(new Mpa(1, "G"))
+                .build()).getId();
+        long firstId = createUser("viral1");
+        long secondId = createUser("viral2");
+
+        filmService.addLike(firstId, filmId);
+        filmService.addLike(secondId, filmId);
+        filmService.deleteLike(secondId, filmId);
+
+        assertEquals(IdSet.of(firstId), writeBehindLikeStorage.getLikesByFilmId(filmId));
+        assertTrue(dbLikeStorage.getLikesByFilmId(filmId).isEmpty());
+
+        writeBehindLikeStorage.flush();
+
+        assertEquals(IdSet.of(firstId), dbLikeStorage.getLikesByFilmId(filmId));
+        assertEquals(1, dbLikeStorage.getLikesCountByFilmId().get(filmId));
+        assertEquals(0, dbLikeStorage.recountLikes());
+    }
+
+    private long createUser(String login) {
+        return userService.create(User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build()).getId();
+    }
+}